@@ -0,0 +1,119 @@
+package com.monitoring.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * TTL 캐시 + single-flight
+ * 같은 키에 대한 동시 요청은 진행 중인 하나의 호출 결과를 공유
+ */
+public class SingleFlightCache<K, V> {
+
+    private final long ttlNanos;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public SingleFlightCache(long ttlMillis) {
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.loadedAt < ttlNanos) {
+            hits.increment();
+            return entry.value;
+        }
+
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        misses.increment();
+        try {
+            V value = loader.apply(key);
+            commit(key, call, value);
+            call.complete(value);
+            return value;
+        } catch (Throwable t) {
+            // Error도 전달해야 기다리던 호출이 영원히 join()에 머물지 않음
+            inFlight.remove(key, call);
+            call.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    /**
+     * 호출 도중 invalidate 되었으면 결과를 캐시하지 않음
+     */
+    private synchronized void commit(K key, CompletableFuture<V> call, V value) {
+        if (inFlight.remove(key, call) && value != null) {
+            entries.put(key, new Entry<>(value, System.nanoTime()));
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        inFlight.remove(key);
+        invalidations.increment();
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        inFlight.clear();
+        invalidations.increment();
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+        private final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.monitoring.config;
 
+import com.monitoring.websocket.AdmissionHandshakeInterceptor;
 import com.monitoring.websocket.MonitoringWebSocketHandler;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
@@ -13,10 +15,16 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final MonitoringWebSocketHandler webSocketHandler;
+    private final AdmissionHandshakeInterceptor admissionHandshakeInterceptor;
+
+    // CORS 설정 (프로덕션에서는 특정 도메인만 허용)
+    @Value("${monitoring.websocket.allowed-origins:*}")
+    private String[] allowedOrigins;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(webSocketHandler, "/ws/monitoring")
-                .setAllowedOrigins("*");  // CORS 설정 (프로덕션에서는 특정 도메인만 허용)
+                .addInterceptors(admissionHandshakeInterceptor)
+                .setAllowedOrigins(allowedOrigins);
     }
-}
\ No newline at end of file
+}
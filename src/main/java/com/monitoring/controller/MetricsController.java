@@ -0,0 +1,46 @@
+package com.monitoring.controller;
+
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final List<MetricsSource> metricsSources;
+
+    // 스크레이프마다 버퍼를 새로 만들지 않도록 재사용
+    private final OpenMetricsWriter writer = new OpenMetricsWriter();
+
+    /**
+     * Prometheus / OpenMetrics 스크레이프
+     */
+    @GetMapping("/metrics")
+    public void metrics(HttpServletResponse response) throws IOException {
+        log.debug("GET /metrics");
+
+        // 잠금 안에서는 버퍼에 기록만 하고 전송은 밖에서 (느린 클라이언트가 다른 스크레이프를 막지 않도록)
+        byte[] body;
+        synchronized (writer) {
+            writer.reset();
+            for (MetricsSource source : metricsSources) {
+                source.writeMetrics(writer);
+            }
+            writer.eof();
+            body = writer.toByteArray();
+        }
+
+        response.setContentType(OpenMetricsWriter.CONTENT_TYPE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -1,12 +1,25 @@
 package com.monitoring.controller;
 
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.monitoring.config.DockerProperties;
+import com.monitoring.model.ContainerQuery;
 import com.monitoring.model.ContainerStatus;
+import com.monitoring.model.RolloutReport;
+import com.monitoring.service.AdaptiveSamplingService;
+import com.monitoring.service.ContainerDiscoveryService;
+import com.monitoring.service.ContainerQueryService;
 import com.monitoring.service.ContainerStatusService;
+import com.monitoring.service.DeploymentAnalysisService;
+import com.monitoring.service.DockerApiCache;
+import com.monitoring.service.WebSocketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,6 +29,13 @@ import java.util.Map;
 public class MonitoringController {
 
     private final ContainerStatusService containerStatusService;
+    private final AdaptiveSamplingService adaptiveSamplingService;
+    private final DockerApiCache dockerApiCache;
+    private final ContainerDiscoveryService containerDiscoveryService;
+    private final WebSocketService webSocketService;
+    private final ContainerQueryService containerQueryService;
+    private final DeploymentAnalysisService deploymentAnalysisService;
+    private final DockerProperties dockerProperties;
 
     /**
      * 모든 컨테이너 상태 조회
@@ -23,7 +43,9 @@ public class MonitoringController {
     @GetMapping("/containers")
     public ResponseEntity<Map<String, ContainerStatus>> getAllContainers() {
         log.debug("GET /api/monitoring/containers");
-        return ResponseEntity.ok(containerStatusService.getAllStatus());
+        return ResponseEntity.ok()
+                .header("X-Monitoring-State", containerDiscoveryService.getState().name().toLowerCase())
+                .body(containerStatusService.getAllStatus());
     }
 
     /**
@@ -41,6 +63,131 @@ public class MonitoringController {
         return ResponseEntity.notFound().build();
     }
 
+    /**
+     * 모니터링 대상 컨테이너의 inspect 요약 조회 (캐시 경유)
+     * Config.Env 등 민감한 값이 포함된 원본 응답은 노출하지 않음
+     */
+    @GetMapping("/containers/{name}/inspect")
+    public ResponseEntity<Map<String, Object>> inspectContainer(@PathVariable String name) {
+        log.debug("GET /api/monitoring/containers/{}/inspect", name);
+
+        List<String> targets = dockerProperties.getTargetContainers();
+        if (targets == null || !targets.contains(name)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        InspectContainerResponse info;
+        try {
+            info = dockerApiCache.inspectContainer(name);
+        } catch (NotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        InspectContainerResponse.ContainerState state = info.getState();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("name", name);
+        summary.put("status", state.getStatus());
+        summary.put("running", state.getRunning());
+        summary.put("health", state.getHealth() != null ? state.getHealth().getStatus() : null);
+        summary.put("startedAt", state.getStartedAt());
+        summary.put("finishedAt", state.getFinishedAt());
+        summary.put("restartCount", info.getRestartCount());
+        summary.put("labels", info.getConfig() != null ? info.getConfig().getLabels() : null);
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * 컨테이너별 현재 수집 주기
+     */
+    @GetMapping("/sampling")
+    public ResponseEntity<Map<String, Object>> getSampling() {
+        log.debug("GET /api/monitoring/sampling");
+        return ResponseEntity.ok(adaptiveSamplingService.getSamplingStatus());
+    }
+
+    /**
+     * metric(cpu, memory, restarts) 기준 상위 N개 컨테이너
+     */
+    @GetMapping("/query/top")
+    public ResponseEntity<List<Map<String, Object>>> queryTop(
+            @RequestParam(defaultValue = "cpu") String metric,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String phase,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String label) {
+        log.debug("GET /api/monitoring/query/top?metric={}&limit={}", metric, limit);
+        return query(ContainerQuery.builder()
+                .kind("top").metric(metric).limit(limit)
+                .phase(phase).status(status).label(label)
+                .build());
+    }
+
+    /**
+     * phase / status / label(key 또는 key=value) 조건으로 컨테이너 필터링
+     */
+    @GetMapping("/query/containers")
+    public ResponseEntity<List<Map<String, Object>>> queryContainers(
+            @RequestParam(required = false) String phase,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String label) {
+        log.debug("GET /api/monitoring/query/containers?phase={}&status={}&label={}", phase, status, label);
+        return query(ContainerQuery.builder()
+                .kind("filter")
+                .phase(phase).status(status).label(label)
+                .build());
+    }
+
+    /**
+     * compose 서비스별 컨테이너 수, CPU/메모리 합계와 평균, 재시작 수
+     */
+    @GetMapping("/query/services")
+    public ResponseEntity<List<Map<String, Object>>> queryServices(
+            @RequestParam(required = false) String phase,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String label) {
+        log.debug("GET /api/monitoring/query/services");
+        return query(ContainerQuery.builder()
+                .kind("services")
+                .phase(phase).status(status).label(label)
+                .build());
+    }
+
+    private ResponseEntity<List<Map<String, Object>>> query(ContainerQuery query) {
+        try {
+            return ResponseEntity.ok(containerQueryService.evaluate(query));
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid query {}: {}", query, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * compose depends_on 기준 컨테이너 의존성 그래프
+     */
+    @GetMapping("/dependencies")
+    public ResponseEntity<Map<String, List<String>>> getDependencies() {
+        log.debug("GET /api/monitoring/dependencies");
+        return ResponseEntity.ok(deploymentAnalysisService.getDependencyGraph());
+    }
+
+    /**
+     * 최근 배포별 시작 시간, critical path, 이전 배포 대비 느려진 컨테이너 (최신순)
+     */
+    @GetMapping("/rollouts")
+    public ResponseEntity<List<RolloutReport>> getRollouts() {
+        log.debug("GET /api/monitoring/rollouts");
+        return ResponseEntity.ok(deploymentAnalysisService.getHistory());
+    }
+
+    /**
+     * 현재 전체 상태 기준 JSON / 바이너리 인코딩 크기 및 직렬화 시간 비교
+     */
+    @GetMapping("/encodings")
+    public ResponseEntity<Map<String, Object>> compareEncodings() {
+        log.debug("GET /api/monitoring/encodings");
+        return ResponseEntity.ok(webSocketService.compareEncodings());
+    }
+
     /**
      * Health check
      */
@@ -49,7 +196,8 @@ public class MonitoringController {
         Map<String, Object> health = Map.of(
                 "status", "UP",
                 "timestamp", System.currentTimeMillis(),
-                "totalContainers", containerStatusService.getAllStatus().size()
+                "totalContainers", containerStatusService.getAllStatus().size(),
+                "discovery", containerDiscoveryService.getDiscoveryStatus()
         );
 
         return ResponseEntity.ok(health);
@@ -1,8 +1,13 @@
 package com.monitoring.controller;
 
-import com.monitoring.service.GithubWebhookService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitoring.service.WebhookQueueService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,12 +19,18 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class WebhookController {
 
-    private final GithubWebhookService githubWebhookService;
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
 
+    private final WebhookQueueService webhookQueueService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 본문은 @RequestBody 대신 큐 자리를 확보한 뒤에 직접 읽음 (거절할 요청은 파싱하지 않음)
+     */
     @PostMapping("/github")
     public ResponseEntity<String> handleGithubWebhook(
             @RequestHeader(value = "X-GitHub-Event", required = false) String event,
-            @RequestBody Map<String, Object> payload
+            HttpServletRequest request
     ) {
         log.info("GitHub Webhook received: event={}", event);
 
@@ -28,26 +39,27 @@ public class WebhookController {
             return ResponseEntity.badRequest().body("Missing X-GitHub-Event header");
         }
 
-        try {
-            switch (event) {
-                case "push":
-                    githubWebhookService.handlePushEvent(payload);
-                    break;
-                case "workflow_run":
-                    githubWebhookService.handleWorkflowEvent(payload);
-                    break;
-                case "ping":
-                    log.info("GitHub webhook ping received");
-                    break;
-                default:
-                    log.info("Unhandled GitHub event type: {}", event);
-            }
-
+        if ("ping".equals(event)) {
+            log.info("GitHub webhook ping received");
             return ResponseEntity.ok("Webhook processed successfully");
+        }
 
-        } catch (Exception e) {
-            log.error("Failed to process GitHub webhook", e);
-            return ResponseEntity.internalServerError().body("Failed to process webhook");
+        // 큐에 넣고 바로 응답 (처리는 워커 스레드에서)
+        WebhookQueueService.Result result = webhookQueueService.submit(event,
+                () -> objectMapper.readValue(request.getInputStream(), PAYLOAD_TYPE));
+        switch (result) {
+            case RATE_LIMITED:
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body("Too many webhook requests");
+            case QUEUE_FULL:
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .body("Webhook queue is full");
+            case INVALID_PAYLOAD:
+                return ResponseEntity.badRequest().body("Invalid JSON payload");
+            default:
+                return ResponseEntity.accepted().body("Webhook accepted");
         }
     }
 
@@ -0,0 +1,9 @@
+package com.monitoring.metrics;
+
+/**
+ * /metrics 엔드포인트에 메트릭을 제공하는 컴포넌트
+ */
+public interface MetricsSource {
+
+    void writeMetrics(OpenMetricsWriter writer);
+}
@@ -0,0 +1,232 @@
+package com.monitoring.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * OpenMetrics 텍스트 포맷 스트리밍 인코더
+ * 샘플마다 문자열을 만들지 않고 재사용하는 바이트 버퍼에 바로 기록
+ *
+ * 사용 예: writer.sample("container_progress").label("container", name).value(100);
+ */
+public class OpenMetricsWriter {
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private byte[] buffer;
+    private int size;
+    private boolean labelsOpen;
+
+    public OpenMetricsWriter() {
+        this(64 * 1024);
+    }
+
+    public OpenMetricsWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public void reset() {
+        size = 0;
+        labelsOpen = false;
+    }
+
+    public OpenMetricsWriter gauge(String name, String help) {
+        return family(name, "gauge", help);
+    }
+
+    /**
+     * counter 패밀리 이름에는 _total을 붙이지 않음 (샘플 이름에만 사용)
+     */
+    public OpenMetricsWriter counter(String name, String help) {
+        return family(name, "counter", help);
+    }
+
+    /**
+     * stateset 샘플의 상태 라벨 이름은 패밀리 이름과 같아야 함
+     */
+    public OpenMetricsWriter stateset(String name, String help) {
+        return family(name, "stateset", help);
+    }
+
+    private OpenMetricsWriter family(String name, String type, String help) {
+        writeAscii("# TYPE ");
+        writeAscii(name);
+        writeByte(' ');
+        writeAscii(type);
+        writeByte('\n');
+
+        if (help != null) {
+            writeAscii("# HELP ");
+            writeAscii(name);
+            writeByte(' ');
+            writeEscaped(help);
+            writeByte('\n');
+        }
+        return this;
+    }
+
+    public OpenMetricsWriter sample(String name) {
+        writeAscii(name);
+        labelsOpen = false;
+        return this;
+    }
+
+    public OpenMetricsWriter label(String key, String value) {
+        writeByte(labelsOpen ? ',' : '{');
+        labelsOpen = true;
+        writeAscii(key);
+        writeByte('=');
+        writeByte('"');
+        writeEscaped(value != null ? value : "");
+        writeByte('"');
+        return this;
+    }
+
+    public void value(long value) {
+        closeLabels();
+        writeLong(value);
+        writeByte('\n');
+    }
+
+    public void value(double value) {
+        closeLabels();
+        writeDouble(value);
+        writeByte('\n');
+    }
+
+    public void eof() {
+        writeAscii("# EOF\n");
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * 기록한 내용의 복사본 (버퍼를 재사용하는 동안에도 안전하게 응답에 쓸 수 있음)
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void closeLabels() {
+        if (labelsOpen) {
+            writeByte('}');
+            labelsOpen = false;
+        }
+        writeByte(' ');
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            writeByte('-');
+            value = -value;
+        }
+
+        ensureCapacity(20);
+        int start = size;
+        do {
+            buffer[size++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+
+        // 뒤집어서 자릿수 순서로 정렬
+        for (int i = start, j = size - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+    /**
+     * 정수 값은 할당 없이 기록, 그 외는 원래 값으로 되돌릴 수 있는 가장 짧은 표현 (Double.toString)
+     * 고정 자릿수로 반올림하면 0.0005 미만의 작은 값이 0이 되므로 사용하지 않음
+     */
+    private void writeDouble(double value) {
+        if (Double.isNaN(value)) {
+            writeAscii("NaN");
+            return;
+        }
+        if (Double.isInfinite(value)) {
+            writeAscii(value > 0 ? "+Inf" : "-Inf");
+            return;
+        }
+        if (value == (long) value) {
+            writeLong((long) value);
+            return;
+        }
+        writeAscii(Double.toString(value));
+    }
+
+    private void writeAscii(String s) {
+        int length = s.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) s.charAt(i);
+        }
+    }
+
+    /**
+     * HELP 텍스트와 라벨 값 공통: 역슬래시, 줄바꿈, 큰따옴표 이스케이프
+     */
+    private void writeEscaped(String s) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                writeByte('\\');
+                writeByte('\\');
+            } else if (c == '\n') {
+                writeByte('\\');
+                writeByte('n');
+            } else if (c == '"') {
+                writeByte('\\');
+                writeByte('"');
+            } else if (c < 0x80) {
+                writeByte(c);
+            } else {
+                int codePoint = Character.codePointAt(s, i);
+                if (Character.isSupplementaryCodePoint(codePoint)) {
+                    i++;
+                }
+                writeUtf8(codePoint);
+            }
+        }
+    }
+
+    private void writeUtf8(int codePoint) {
+        if (codePoint < 0x800) {
+            writeByte(0xC0 | (codePoint >> 6));
+            writeByte(0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            writeByte(0xE0 | (codePoint >> 12));
+            writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+            writeByte(0x80 | (codePoint & 0x3F));
+        } else {
+            writeByte(0xF0 | (codePoint >> 18));
+            writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+            writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+            writeByte(0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) b;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.monitoring.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClusterMessage {
+
+    private String type;             // "hello", "auth", "state", "synced", "event", "viewers"
+    private String nodeId;           // 보낸 노드
+
+    // hello: 인증용 nonce와 anti-entropy용 버전 요약
+    private String nonce;
+    private Map<String, Long> digest;
+
+    // auth: 상대 nonce와 보낸 노드 ID에 대한 HMAC-SHA256(secret), Base64
+    private String proof;
+
+    // state: 버전이 붙은 컨테이너 상태 (last-writer-wins)
+    private Long version;
+    private String origin;           // 상태를 만든 노드
+    private ContainerStatus status;
+
+    // synced: anti-entropy로 보낼 state를 모두 보냄 (필드 없음)
+
+    // event: 다른 노드의 클라이언트에도 전달할 WebSocket 메시지
+    private WebSocketMessage event;
+
+    // viewers: 보낸 노드에 연결된 대시보드 세션 수와 화면에 보이는 컨테이너 (docker-owner의 샘플링 주기 결정에 사용)
+    private Integer sessions;
+    private Set<String> viewed;
+}
@@ -0,0 +1,25 @@
+package com.monitoring.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 컨테이너 상태 조회 조건 (REST 파라미터 / WebSocket 구독에서 공통 사용)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContainerQuery {
+
+    private String kind;             // top, filter, services
+    private String metric;           // top 정렬 기준: cpu, memory, restarts
+    private Integer limit;           // top 결과 개수
+
+    // 필터 (null이면 조건 없음)
+    private String phase;
+    private String status;
+    private String label;            // "key=value" 또는 "key" (라벨 존재 여부)
+}
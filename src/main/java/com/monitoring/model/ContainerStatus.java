@@ -21,7 +21,11 @@ public class ContainerStatus {
     private String cpu;              // CPU 사용률
     private String memory;           // 메모리 사용량
     private String uptime;           // 가동 시간
+    private Long restarts;           // 첫 시작 이후 재시작 횟수 (DockerEventService의 container_restarts와 같은 값)
 
     // 의존성 정보
     private String waitingFor;       // 대기 중인 컨테이너 이름
+
+    // 재시작 반복 정보 (flapping 상태일 때만 설정)
+    private FlapSummary flapping;
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.monitoring.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContainerTiming {
+
+    private String containerName;
+    private List<String> dependsOn;     // compose depends_on로 연결된 컨테이너
+
+    // 배포 내 시각 (epoch millis)
+    private Long createdAt;
+    private Long startedAt;
+    private Long readyAt;               // healthcheck가 있으면 healthy, 없으면 start 시각
+
+    private Long waitMs;                // create -> start (의존성 대기)
+    private Long startupMs;             // start -> ready (시작 + healthcheck)
+    private Long readyOffsetMs;         // 배포 시작 -> ready
+
+    private String gatedBy;             // 시작을 늦춘 의존 컨테이너 (가장 늦게 ready된 의존성)
+    private Long baselineStartupMs;     // 이전 배포들의 평균 startupMs
+    private Boolean regression;
+}
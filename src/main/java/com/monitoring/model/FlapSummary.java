@@ -0,0 +1,19 @@
+package com.monitoring.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlapSummary {
+
+    private Long since;                 // flapping 감지 시각
+    private Integer cycles;             // 감지 이후 종료(die) 횟수
+    private Long suppressedEvents;      // 브로드캐스트하지 않은 이벤트 수
+    private Double restartsPerMinute;   // 감지 윈도우 기준 재시작 빈도
+    private String lastEvent;
+}
@@ -0,0 +1,25 @@
+package com.monitoring.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RolloutReport {
+
+    private Long startedAt;
+    private Long finishedAt;
+    private Long durationMs;            // 배포 시작 -> 마지막 컨테이너 ready
+    private Long baselineDurationMs;    // 이전 배포들의 평균 durationMs
+    private Boolean timedOut;           // 제한 시간 안에 모든 컨테이너가 ready되지 않음
+
+    private List<String> criticalPath;  // 가장 늦게 ready된 컨테이너까지의 의존성 사슬 (앞쪽이 먼저)
+    private List<ContainerTiming> containers;
+    private List<String> regressions;   // 평균보다 크게 느려진 컨테이너
+}
@@ -0,0 +1,206 @@
+package com.monitoring.service;
+
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
+import com.monitoring.model.ContainerStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 시청 중인 클라이언트와 컨테이너 상태에 따라 수집 주기를 조절
+ *
+ * - 연결된 세션 없음 (클러스터 모드에서는 다른 노드의 세션 포함): idle 주기
+ * - 화면에 보이거나 전환 중(creating/starting/stopping)인 컨테이너: fast 주기
+ * - 안정된 컨테이너: base 주기부터 max 주기까지 점진적으로 늘림 (전환이 끝나거나 화면에서 사라지면 base부터 다시 시작)
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AdaptiveSamplingService implements MetricsSource {
+
+    private static final double CPU_CHANGE_THRESHOLD = 2.0;        // %p
+    private static final double MEMORY_CHANGE_THRESHOLD = 0.02;    // 2%
+
+    private final ContainerStatusService containerStatusService;
+    private final CgroupStatsService cgroupStatsService;
+    private final WebSocketService webSocketService;
+    private final ClusterService clusterService;
+
+    @Value("${monitoring.sampling.fast-interval-ms:1000}")
+    private long fastIntervalMs;
+
+    @Value("${monitoring.sampling.base-interval-ms:5000}")
+    private long baseIntervalMs;
+
+    @Value("${monitoring.sampling.max-interval-ms:30000}")
+    private long maxIntervalMs;
+
+    @Value("${monitoring.sampling.idle-interval-ms:60000}")
+    private long idleIntervalMs;
+
+    private final Map<String, SamplingState> states = new ConcurrentHashMap<>();
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private long lastTickMillis;
+
+    // 절감량 측정용: 실제 샘플 수, 고정 base 주기였다면 수행했을 샘플 수, 샘플링에 쓴 CPU 시간
+    private volatile long samplesTotal;
+    private volatile double baselineSamplesTotal;
+    private volatile long samplingCpuNanos;
+
+    @Scheduled(fixedDelayString = "${monitoring.sampling.tick-ms:1000}")
+    public void tick() {
+        if (!clusterService.isDockerOwner()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean idle = webSocketService.getSessionCount() == 0 && clusterService.getRemoteSessionCount() == 0;
+
+        int containerCount = 0;
+        for (String containerName : containerStatusService.getContainerNames()) {
+            containerCount++;
+            ContainerStatus status = containerStatusService.getStatus(containerName);
+            if (status == null) {
+                continue;
+            }
+
+            SamplingState state = states.computeIfAbsent(containerName, k -> new SamplingState(baseIntervalMs));
+            state.reason = reasonFor(status, idle, containerName);
+            if ("transition".equals(state.reason) || "viewed".equals(state.reason)) {
+                state.backoffMs = baseIntervalMs;
+            }
+            state.intervalMs = intervalFor(state);
+
+            // 이벤트로 상태가 바뀌었으면 즉시 샘플링
+            boolean changedByEvent = !Objects.equals(status.getLastUpdate(), state.lastUpdateSeen);
+            if (!changedByEvent && now - state.lastSampleMillis < state.intervalMs) {
+                continue;
+            }
+
+            sample(containerName, state);
+            state.lastSampleMillis = now;
+            state.lastUpdateSeen = status.getLastUpdate();
+        }
+
+        if (lastTickMillis > 0) {
+            baselineSamplesTotal += (double) containerCount * (now - lastTickMillis) / baseIntervalMs;
+        }
+        lastTickMillis = now;
+
+        states.keySet().retainAll(containerStatusService.getContainerNames());
+    }
+
+    private void sample(String containerName, SamplingState state) {
+        long cpuStart = threadMXBean.getCurrentThreadCpuTime();
+        containerStatusService.refreshContainer(containerName);
+        samplingCpuNanos += threadMXBean.getCurrentThreadCpuTime() - cpuStart;
+        samplesTotal++;
+
+        // 안정 상태면 back-off, 변화가 크면 base 주기로 복귀 (back-off는 stable 주기에서만 늘림)
+        CgroupStatsService.ContainerUsage usage = cgroupStatsService.getUsage(containerName);
+        boolean stable = true;
+        if (usage != null && usage.getSampleCount() > 0) {
+            stable = Math.abs(usage.getCpuPercent() - state.lastCpu) < CPU_CHANGE_THRESHOLD
+                    && Math.abs(usage.getMemoryBytes() - state.lastMemory)
+                    <= Math.max(state.lastMemory, 1) * MEMORY_CHANGE_THRESHOLD;
+            state.lastCpu = usage.getCpuPercent();
+            state.lastMemory = usage.getMemoryBytes();
+        }
+        if ("stable".equals(state.reason)) {
+            state.backoffMs = stable ? Math.min(state.backoffMs * 2, maxIntervalMs) : baseIntervalMs;
+        }
+    }
+
+    private String reasonFor(ContainerStatus status, boolean idle, String containerName) {
+        if (idle) {
+            return "idle";
+        }
+        if (isTransitioning(status.getPhase())) {
+            return "transition";
+        }
+        if (webSocketService.isViewed(containerName) || clusterService.isViewedRemotely(containerName)) {
+            return "viewed";
+        }
+        return "stable";
+    }
+
+    private long intervalFor(SamplingState state) {
+        switch (state.reason) {
+            case "idle":
+                return idleIntervalMs;
+            case "transition":
+            case "viewed":
+                return fastIntervalMs;
+            default:
+                return state.backoffMs;
+        }
+    }
+
+    private boolean isTransitioning(String phase) {
+        return "creating".equals(phase) || "starting".equals(phase) || "stopping".equals(phase);
+    }
+
+    /**
+     * 컨테이너별 현재 수집 주기
+     */
+    public Map<String, Object> getSamplingStatus() {
+        Map<String, Object> containers = new LinkedHashMap<>();
+        states.forEach((name, state) -> containers.put(name, Map.of(
+                "intervalMs", state.intervalMs,
+                "reason", state.reason
+        )));
+
+        return Map.of(
+                "containers", containers,
+                "samplesTotal", samplesTotal,
+                "baselineSamplesTotal", (long) baselineSamplesTotal,
+                "samplingCpuMillis", samplingCpuNanos / 1_000_000
+        );
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        writer.gauge("container_sampling_interval_seconds", "Current effective sampling interval");
+        states.forEach((name, state) ->
+                writer.sample("container_sampling_interval_seconds")
+                        .label("container", name)
+                        .label("reason", state.reason)
+                        .value(state.intervalMs / 1000.0));
+
+        writer.counter("sampling_samples", "Container samples taken");
+        writer.sample("sampling_samples_total").value(samplesTotal);
+
+        writer.counter("sampling_baseline_samples", "Samples a fixed collector at the base interval would have taken");
+        writer.sample("sampling_baseline_samples_total").value(baselineSamplesTotal);
+
+        writer.counter("sampling_cpu_seconds", "CPU time spent sampling containers");
+        writer.sample("sampling_cpu_seconds_total").value(samplingCpuNanos / 1e9);
+    }
+
+    private static class SamplingState {
+
+        private long backoffMs;
+        private long intervalMs;
+        private String reason = "stable";
+        private long lastSampleMillis;
+        private Long lastUpdateSeen;
+        private double lastCpu;
+        private long lastMemory;
+
+        SamplingState(long baseIntervalMs) {
+            this.backoffMs = baseIntervalMs;
+            this.intervalMs = baseIntervalMs;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.monitoring.service;
+
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
+import com.monitoring.ratelimit.TokenBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket 연결 수락 여부 결정
+ *
+ * - 전체 세션 수 / IP별 세션 수 상한
+ * - 전체 / IP별 연결 속도 제한 (토큰 버킷)
+ * - 재연결 폭주를 분산시키기 위한 지터가 적용된 재연결 대기 시간
+ */
+@Service
+@Slf4j
+public class AdmissionControlService implements MetricsSource {
+
+    public static final String CLIENT_IP_ATTRIBUTE = "admittedClientIp";
+
+    public enum Decision {
+        ACCEPTED,
+        SESSION_LIMIT,
+        IP_SESSION_LIMIT,
+        RATE_LIMITED,
+        IP_RATE_LIMITED;
+
+        public boolean isAccepted() {
+            return this == ACCEPTED;
+        }
+
+        /**
+         * 속도 제한이면 429, 연결 수 상한이면 503
+         */
+        public int httpStatus() {
+            return this == RATE_LIMITED || this == IP_RATE_LIMITED ? 429 : 503;
+        }
+    }
+
+    @Value("${monitoring.admission.max-sessions:500}")
+    private int maxSessions;
+
+    @Value("${monitoring.admission.max-sessions-per-ip:20}")
+    private int maxSessionsPerIp;
+
+    @Value("${monitoring.admission.connect-burst:50}")
+    private double connectBurst;
+
+    @Value("${monitoring.admission.connect-rate-per-second:20}")
+    private double connectRate;
+
+    @Value("${monitoring.admission.per-ip-connect-burst:10}")
+    private double perIpConnectBurst;
+
+    @Value("${monitoring.admission.per-ip-connect-rate-per-second:1}")
+    private double perIpConnectRate;
+
+    @Value("${monitoring.admission.reconnect-min-ms:1000}")
+    private long reconnectMinMs;
+
+    @Value("${monitoring.admission.reconnect-max-ms:15000}")
+    private long reconnectMaxMs;
+
+    private TokenBucket connectBucket;
+    private final Map<String, TokenBucket> ipConnectBuckets = new ConcurrentHashMap<>();
+
+    // 연결된 세션 수 (연결 수립 시 증가, 종료 시 감소)
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final Map<String, Integer> ipSessionCounts = new HashMap<>();
+
+    private final Map<Decision, LongAdder> decisionCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        connectBucket = new TokenBucket(connectBurst, connectRate);
+        for (Decision decision : Decision.values()) {
+            decisionCounts.put(decision, new LongAdder());
+        }
+    }
+
+    /**
+     * 핸드셰이크 시 호출. 수락하면 연결 수립 후 opened, 종료 시 closed로 세션 수 반영
+     * (동시에 들어온 핸드셰이크는 상한을 조금 넘을 수 있지만 연결 속도 제한으로 제한됨)
+     */
+    public Decision admit(String clientIp) {
+        Decision decision = tryAdmit(clientIp);
+        decisionCounts.get(decision).increment();
+        if (!decision.isAccepted()) {
+            log.debug("WebSocket connection from {} rejected: {}", clientIp, decision);
+        }
+        return decision;
+    }
+
+    private synchronized Decision tryAdmit(String clientIp) {
+        // 상한 검사를 먼저 해서 거절될 연결이 토큰을 소모하지 않게 함
+        if (sessionCount.get() >= maxSessions) {
+            return Decision.SESSION_LIMIT;
+        }
+        int ipSessions = ipSessionCounts.getOrDefault(clientIp, 0);
+        if (ipSessions >= maxSessionsPerIp) {
+            return Decision.IP_SESSION_LIMIT;
+        }
+
+        TokenBucket ipBucket = ipConnectBuckets.computeIfAbsent(clientIp,
+                k -> new TokenBucket(perIpConnectBurst, perIpConnectRate));
+        if (!ipBucket.tryAcquire()) {
+            return Decision.IP_RATE_LIMITED;
+        }
+        if (!connectBucket.tryAcquire()) {
+            return Decision.RATE_LIMITED;
+        }
+        return Decision.ACCEPTED;
+    }
+
+    public synchronized void opened(WebSocketSession session) {
+        Object clientIp = session.getAttributes().get(CLIENT_IP_ATTRIBUTE);
+        if (clientIp != null) {
+            sessionCount.incrementAndGet();
+            ipSessionCounts.merge(clientIp.toString(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 세션 속성에서 IP를 꺼내므로 여러 번 호출해도 한 번만 반영
+     */
+    public synchronized void closed(WebSocketSession session) {
+        Object clientIp = session.getAttributes().remove(CLIENT_IP_ATTRIBUTE);
+        if (clientIp != null) {
+            sessionCount.decrementAndGet();
+            ipSessionCounts.computeIfPresent(clientIp.toString(), (ip, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * 재연결 대기 시간 (min~max 사이 균등 분포). 클라이언트마다 달라서 재연결이 한꺼번에 몰리지 않음
+     */
+    public long reconnectHintMillis() {
+        return ThreadLocalRandom.current().nextLong(reconnectMinMs, Math.max(reconnectMinMs, reconnectMaxMs) + 1);
+    }
+
+    /**
+     * 세션이 없고 토큰이 다 찬 IP의 버킷 정리
+     */
+    @Scheduled(fixedDelayString = "${monitoring.admission.cleanup-interval-ms:60000}")
+    public synchronized void cleanup() {
+        ipConnectBuckets.entrySet().removeIf(entry -> entry.getValue().getAvailableTokens() >= perIpConnectBurst
+                && !ipSessionCounts.containsKey(entry.getKey()));
+    }
+
+    public int getSessionCount() {
+        return sessionCount.get();
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        writer.counter("websocket_connections", "WebSocket handshakes by admission decision");
+        decisionCounts.forEach((decision, count) ->
+                writer.sample("websocket_connections_total")
+                        .label("result", decision.name().toLowerCase())
+                        .value(count.sum()));
+
+        writer.gauge("websocket_admitted_sessions", "Open sessions counted by admission control");
+        writer.sample("websocket_admitted_sessions").value(sessionCount.get());
+
+        writer.gauge("websocket_tracked_client_ips", "Client IPs with sessions or connect rate state");
+        writer.sample("websocket_tracked_client_ips").value(ipConnectBuckets.size());
+    }
+}
@@ -0,0 +1,358 @@
+package com.monitoring.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * cgroup v2 파일을 직접 읽어 컨테이너 리소스 사용량을 수집
+ * (Docker Stats API 대신 같은 호스트에서 동작할 때 사용)
+ */
+@Service
+@Slf4j
+public class CgroupStatsService {
+
+    private static final byte[] USAGE_USEC = "usage_usec".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INACTIVE_FILE = "inactive_file".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RBYTES = "rbytes=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WBYTES = "wbytes=".getBytes(StandardCharsets.US_ASCII);
+
+    @Value("${monitoring.cgroup.enabled:false}")
+    @Getter
+    private boolean enabled;
+
+    @Value("${monitoring.cgroup.root:/sys/fs/cgroup}")
+    private String cgroupRoot;
+
+    // 컨테이너 이름 -> cgroup 디렉토리 및 최근 샘플
+    private final Map<String, CgroupContainer> containers = new ConcurrentHashMap<>();
+
+    // sample()은 synchronized이므로 버퍼 하나를 재사용
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(16 * 1024);
+
+    /**
+     * 이벤트에서 얻은 컨테이너 ID를 등록
+     */
+    public synchronized void track(String containerName, String containerId) {
+        if (!enabled || containerId == null) {
+            return;
+        }
+
+        CgroupContainer existing = containers.get(containerName);
+        if (existing != null && existing.id.equals(containerId)) {
+            return;
+        }
+
+        CgroupContainer previous = containers.put(containerName, new CgroupContainer(containerName, containerId));
+        if (previous != null) {
+            previous.close();
+        }
+        log.debug("Tracking cgroup for {} ({})", containerName, containerId);
+    }
+
+    public synchronized void untrack(String containerName) {
+        CgroupContainer removed = containers.remove(containerName);
+        if (removed != null) {
+            removed.close();
+            log.debug("Stopped tracking cgroup for {}", containerName);
+        }
+    }
+
+    public boolean isTracked(String containerName) {
+        return containers.containsKey(containerName);
+    }
+
+    public Map<String, ContainerUsage> getUsages() {
+        return Collections.unmodifiableMap(containers);
+    }
+
+    public ContainerUsage getUsage(String containerName) {
+        return containers.get(containerName);
+    }
+
+    /**
+     * 단일 컨테이너 샘플링. 성공 시 true
+     */
+    public synchronized boolean sample(String containerName) {
+        CgroupContainer container = containers.get(containerName);
+        return container != null && sample(container);
+    }
+
+    private boolean sample(CgroupContainer container) {
+        try {
+            if (!container.open()) {
+                return false;
+            }
+
+            long now = System.nanoTime();
+
+            read(container.cpuStat);
+            long usageUsec = findValue(USAGE_USEC);
+
+            read(container.memoryCurrent);
+            long memoryCurrent = parseLong(0);
+
+            read(container.memoryStat);
+            long inactiveFile = findValue(INACTIVE_FILE);
+
+            read(container.ioStat);
+            long ioRead = sumField(RBYTES);
+            long ioWrite = sumField(WBYTES);
+
+            if (container.lastSampleNanos > 0 && usageUsec >= container.lastUsageUsec) {
+                long elapsedUsec = (now - container.lastSampleNanos) / 1000;
+                if (elapsedUsec > 0) {
+                    container.cpuPercent = (usageUsec - container.lastUsageUsec) * 100.0 / elapsedUsec;
+                }
+            }
+
+            container.lastUsageUsec = usageUsec;
+            container.lastSampleNanos = now;
+            container.memoryBytes = inactiveFile > 0 && inactiveFile < memoryCurrent
+                    ? memoryCurrent - inactiveFile
+                    : memoryCurrent;
+            container.ioReadBytes = ioRead;
+            container.ioWriteBytes = ioWrite;
+            container.sampleCount++;
+            return true;
+
+        } catch (IOException e) {
+            // 컨테이너가 종료되면 cgroup 디렉토리가 사라짐 - 다음 샘플에서 다시 찾음
+            log.debug("Failed to read cgroup for {}: {}", container.name, e.getMessage());
+            container.close();
+            return false;
+        }
+    }
+
+    private void read(FileChannel channel) throws IOException {
+        buffer.clear();
+        long position = 0;
+        int n;
+        while (buffer.hasRemaining() && (n = channel.read(buffer, position)) > 0) {
+            position += n;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * "key value" 형식의 줄에서 값 조회 (cpu.stat, memory.stat)
+     */
+    private long findValue(byte[] key) {
+        int limit = buffer.limit();
+        int lineStart = 0;
+
+        while (lineStart < limit) {
+            if (matches(lineStart, key) && lineStart + key.length < limit
+                    && buffer.get(lineStart + key.length) == ' ') {
+                return parseLong(lineStart + key.length + 1);
+            }
+            lineStart = nextLine(lineStart);
+        }
+        return -1;
+    }
+
+    /**
+     * "key=value" 토큰을 모든 줄에서 합산 (io.stat의 장치별 값)
+     */
+    private long sumField(byte[] key) {
+        int limit = buffer.limit();
+        long sum = 0;
+
+        for (int i = 0; i + key.length <= limit; i++) {
+            boolean tokenStart = i == 0 || buffer.get(i - 1) == ' ' || buffer.get(i - 1) == '\n';
+            if (tokenStart && matches(i, key)) {
+                sum += parseLong(i + key.length);
+                i += key.length;
+            }
+        }
+        return sum;
+    }
+
+    private boolean matches(int offset, byte[] key) {
+        if (offset + key.length > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nextLine(int offset) {
+        int limit = buffer.limit();
+        while (offset < limit && buffer.get(offset) != '\n') {
+            offset++;
+        }
+        return offset + 1;
+    }
+
+    private long parseLong(int offset) {
+        int limit = buffer.limit();
+        long value = 0;
+        boolean found = false;
+
+        while (offset < limit) {
+            byte b = buffer.get(offset++);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+            found = true;
+        }
+        // memory.max 등의 "max" 값은 -1로 처리
+        return found ? value : -1;
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        containers.values().forEach(CgroupContainer::close);
+        containers.clear();
+    }
+
+    /**
+     * 컨테이너별 최근 리소스 사용량 (읽기 전용 뷰)
+     */
+    public interface ContainerUsage {
+
+        double getCpuPercent();
+
+        long getMemoryBytes();
+
+        long getIoReadBytes();
+
+        long getIoWriteBytes();
+
+        long getSampleCount();
+    }
+
+    private class CgroupContainer implements ContainerUsage {
+
+        private final String name;
+        private final String id;
+
+        private FileChannel cpuStat;
+        private FileChannel memoryCurrent;
+        private FileChannel memoryStat;
+        private FileChannel ioStat;
+
+        private long lastUsageUsec;
+        private long lastSampleNanos;
+
+        private volatile double cpuPercent;
+        private volatile long memoryBytes;
+        private volatile long ioReadBytes;
+        private volatile long ioWriteBytes;
+        private volatile long sampleCount;
+
+        CgroupContainer(String name, String id) {
+            this.name = name;
+            this.id = id;
+        }
+
+        boolean open() throws IOException {
+            if (cpuStat != null) {
+                return true;
+            }
+
+            Path dir = resolveDirectory();
+            if (dir == null) {
+                return false;
+            }
+
+            try {
+                cpuStat = FileChannel.open(dir.resolve("cpu.stat"), StandardOpenOption.READ);
+                memoryCurrent = FileChannel.open(dir.resolve("memory.current"), StandardOpenOption.READ);
+                memoryStat = FileChannel.open(dir.resolve("memory.stat"), StandardOpenOption.READ);
+                ioStat = FileChannel.open(dir.resolve("io.stat"), StandardOpenOption.READ);
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+
+            lastSampleNanos = 0;
+            log.debug("Opened cgroup directory for {}: {}", name, dir);
+            return true;
+        }
+
+        /**
+         * systemd 드라이버(system.slice/docker-ID.scope)와 cgroupfs 드라이버(docker/ID) 모두 지원
+         */
+        private Path resolveDirectory() {
+            Path root = Paths.get(cgroupRoot);
+            Path[] candidates = {
+                    root.resolve("system.slice").resolve("docker-" + id + ".scope"),
+                    root.resolve("docker").resolve(id)
+            };
+
+            for (Path candidate : candidates) {
+                if (Files.isReadable(candidate.resolve("cpu.stat"))) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        void close() {
+            closeQuietly(cpuStat);
+            closeQuietly(memoryCurrent);
+            closeQuietly(memoryStat);
+            closeQuietly(ioStat);
+            cpuStat = null;
+            memoryCurrent = null;
+            memoryStat = null;
+            ioStat = null;
+        }
+
+        private void closeQuietly(FileChannel channel) {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close cgroup file for {}", name, e);
+            }
+        }
+
+        @Override
+        public double getCpuPercent() {
+            return cpuPercent;
+        }
+
+        @Override
+        public long getMemoryBytes() {
+            return memoryBytes;
+        }
+
+        @Override
+        public long getIoReadBytes() {
+            return ioReadBytes;
+        }
+
+        @Override
+        public long getIoWriteBytes() {
+            return ioWriteBytes;
+        }
+
+        @Override
+        public long getSampleCount() {
+            return sampleCount;
+        }
+    }
+}
@@ -0,0 +1,817 @@
+package com.monitoring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
+import com.monitoring.model.ClusterMessage;
+import com.monitoring.model.ContainerStatus;
+import com.monitoring.model.WebSocketMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 여러 모니터 인스턴스 간 상태 복제 (클러스터 모드)
+ *
+ * - 노드 간 TCP 연결로 줄 단위 JSON 메시지 교환
+ * - 컨테이너 상태는 (version, origin) 기준 last-writer-wins
+ * - 연결 시 hello로 nonce를 교환하고, 상대 nonce에 대한 HMAC(secret)으로 인증 (secret은 전송하지 않음)
+ * - 인증 후 hello의 버전 요약(digest)을 비교해 상대에게 없는 상태를 전송 (anti-entropy), 끝나면 synced로 알림
+ * - Docker와 통신하는 노드(docker-owner)는 하나여도 되고, 모든 노드가 대시보드 클라이언트를 받을 수 있음
+ * - 노드별 대시보드 세션 수와 보고 있는 컨테이너를 공유해 docker-owner가 다른 노드의 시청자도 반영해 샘플링
+ * - 전송은 연결별 큐와 writer 스레드에서 처리 (느린 노드가 이벤트 처리/브로드캐스트를 막지 않음)
+ */
+@Service
+@Slf4j
+public class ClusterService implements MetricsSource {
+
+    // 노드 로컬 메시지 - 다른 노드로 전달하지 않음
+    private static final Set<String> LOCAL_MESSAGE_TYPES = Set.of("initial_status", "monitor_state");
+
+    private static final long BULK_SEND_WAIT_MS = 5000;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final ContainerStatusService containerStatusService;
+    private final WebSocketService webSocketService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${monitoring.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${monitoring.cluster.node-id:}")
+    private String nodeId;
+
+    // 기본은 같은 머신의 노드끼리만 연결. 다른 머신과 연결하려면 secret과 함께 지정
+    @Value("${monitoring.cluster.bind-address:127.0.0.1}")
+    private String bindAddress;
+
+    @Value("${monitoring.cluster.port:7946}")
+    private int port;
+
+    @Value("${monitoring.cluster.peers:}")
+    private List<String> peers;
+
+    @Value("${monitoring.cluster.secret:}")
+    private String secret;
+
+    @Value("${monitoring.cluster.docker-owner:true}")
+    private boolean dockerOwner;
+
+    @Value("${monitoring.cluster.reconnect-interval-ms:5000}")
+    private long reconnectIntervalMs;
+
+    // 연결별 전송 대기 메시지 상한. 넘치면 연결을 끊고 재연결 시 anti-entropy로 다시 맞춤
+    @Value("${monitoring.cluster.send-queue-size:1000}")
+    private int sendQueueSize;
+
+    // 컨테이너별 최신 버전
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+    private long clock;
+
+    // 다른 노드의 시청자 (nodeId -> 세션 수 / 보고 있는 컨테이너), 연결이 끊기면 제거
+    private final Map<String, PeerViewers> remoteViewers = new ConcurrentHashMap<>();
+    private volatile PeerViewers lastSentViewers;
+
+    // hello를 주고받은 연결 (nodeId -> 연결)
+    private final Map<String, PeerConnection> connections = new ConcurrentHashMap<>();
+    private final Set<PeerConnection> pending = new CopyOnWriteArraySet<>();
+
+    // 어느 peer로부터든 첫 anti-entropy 상태를 모두 받으면 완료 (docker-owner가 아닌 노드의 준비 여부)
+    private final CompletableFuture<Void> initialSync = new CompletableFuture<>();
+
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+
+    private final Map<String, LongAdder> sentCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> receivedCounts = new ConcurrentHashMap<>();
+    private final LongAdder staleUpdates = new LongAdder();
+    private final LongAdder rejectedMessages = new LongAdder();
+    private final LongAdder sendQueueOverflows = new LongAdder();
+    private final LongAdder authFailures = new LongAdder();
+
+    public ClusterService(
+            ContainerStatusService containerStatusService,
+            @Lazy WebSocketService webSocketService) {
+        this.containerStatusService = containerStatusService;
+        this.webSocketService = webSocketService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString().substring(0, 8);
+        }
+
+        InetAddress bindInetAddress;
+        try {
+            bindInetAddress = InetAddress.getByName(bindAddress);
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid cluster bind address " + bindAddress, e);
+        }
+        // 외부에서 접근 가능한 포트를 secret 없이 열면 누구나 상태/이벤트를 주입할 수 있음
+        if (!bindInetAddress.isLoopbackAddress() && (secret == null || secret.isBlank())) {
+            throw new IllegalStateException(
+                    "monitoring.cluster.secret is required when binding cluster port to " + bindAddress);
+        }
+        List<InetSocketAddress> peerAddresses = parsePeers(peers);
+        running = true;
+
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.bind(new InetSocketAddress(bindInetAddress, port));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to bind cluster port " + port, e);
+        }
+
+        Thread acceptor = new Thread(this::acceptLoop, "cluster-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        for (InetSocketAddress peer : peerAddresses) {
+            Thread connector = new Thread(() -> connectLoop(peer), "cluster-connector-" + peer);
+            connector.setDaemon(true);
+            connector.start();
+        }
+
+        log.info("Cluster mode started: node={}, port={}, peers={}, dockerOwner={}", nodeId, port, peers, dockerOwner);
+    }
+
+    /**
+     * "host:port" 목록 검증. 잘못된 항목이 있으면 연결 스레드가 조용히 죽지 않도록 시작 시 실패
+     */
+    static List<InetSocketAddress> parsePeers(List<String> peers) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        if (peers == null) {
+            return addresses;
+        }
+        for (String entry : peers) {
+            String peer = entry.trim();
+            if (peer.isEmpty()) {
+                continue;
+            }
+            int colon = peer.lastIndexOf(':');
+            int peerPort = -1;
+            if (colon > 0) {
+                try {
+                    peerPort = Integer.parseInt(peer.substring(colon + 1));
+                } catch (NumberFormatException e) {
+                    peerPort = -1;
+                }
+            }
+            if (peerPort < 1 || peerPort > 65535) {
+                throw new IllegalStateException(
+                        "Invalid monitoring.cluster.peers entry '" + peer + "': expected host:port");
+            }
+            addresses.add(InetSocketAddress.createUnresolved(peer.substring(0, colon), peerPort));
+        }
+        return addresses;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close cluster server socket", e);
+            }
+        }
+        connections.values().forEach(PeerConnection::close);
+        pending.forEach(PeerConnection::close);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 이 노드가 Docker 이벤트 수신/탐색/샘플링을 담당하는지 여부
+     */
+    public boolean isDockerOwner() {
+        return !enabled || dockerOwner;
+    }
+
+    public CompletableFuture<Void> getInitialSync() {
+        return initialSync;
+    }
+
+    /**
+     * 로컬에서 발생한 브로드캐스트를 다른 노드에 전달
+     */
+    public void publish(WebSocketMessage message) {
+        if (!enabled || LOCAL_MESSAGE_TYPES.contains(message.getType())) {
+            return;
+        }
+
+        if ("container_status_update".equals(message.getType()) && message.getData() instanceof ContainerStatus) {
+            ContainerStatus status = (ContainerStatus) message.getData();
+            Version version = new Version(nextVersion(), nodeId);
+            versions.put(status.getContainerName(), version);
+            sendToAll(stateMessage(status, version));
+        } else {
+            sendToAll(ClusterMessage.builder()
+                    .type("event")
+                    .nodeId(nodeId)
+                    .event(message)
+                    .build());
+        }
+    }
+
+    /**
+     * 이 노드의 시청자 정보가 바뀌었으면 다른 노드에 전달
+     */
+    @Scheduled(fixedDelayString = "${monitoring.cluster.viewers-interval-ms:1000}")
+    public void publishViewers() {
+        if (!enabled || connections.isEmpty()) {
+            return;
+        }
+
+        PeerViewers current = localViewers();
+        if (current.equals(lastSentViewers)) {
+            return;
+        }
+        lastSentViewers = current;
+        sendToAll(viewersMessage(current));
+    }
+
+    /**
+     * 다른 노드에 연결된 대시보드 세션 수 합계
+     */
+    public int getRemoteSessionCount() {
+        int total = 0;
+        for (PeerViewers viewers : remoteViewers.values()) {
+            total += viewers.sessions;
+        }
+        return total;
+    }
+
+    /**
+     * 다른 노드의 세션 중 해당 컨테이너를 보고 있는 세션이 있으면 true
+     */
+    public boolean isViewedRemotely(String containerName) {
+        for (PeerViewers viewers : remoteViewers.values()) {
+            if (viewers.viewed.contains(containerName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PeerViewers localViewers() {
+        return new PeerViewers(webSocketService.getSessionCount(), webSocketService.getViewedContainers());
+    }
+
+    private ClusterMessage viewersMessage(PeerViewers viewers) {
+        return ClusterMessage.builder()
+                .type("viewers")
+                .nodeId(nodeId)
+                .sessions(viewers.sessions)
+                .viewed(viewers.viewed)
+                .build();
+    }
+
+    private synchronized long nextVersion() {
+        clock = Math.max(clock + 1, System.currentTimeMillis());
+        return clock;
+    }
+
+    private synchronized void observeVersion(long version) {
+        clock = Math.max(clock, version);
+    }
+
+    private ClusterMessage stateMessage(ContainerStatus status, Version version) {
+        return ClusterMessage.builder()
+                .type("state")
+                .nodeId(nodeId)
+                .version(version.version)
+                .origin(version.origin)
+                .status(status)
+                .build();
+    }
+
+    private void sendToAll(ClusterMessage message) {
+        String line = toLine(message);
+        if (line == null) {
+            return;
+        }
+        connections.values().forEach(connection -> connection.send(message.getType(), line));
+    }
+
+    private String toLine(ClusterMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (Exception e) {
+            log.error("Failed to serialize cluster message", e);
+            return null;
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                startConnection(socket, false);
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Cluster accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void connectLoop(InetSocketAddress peer) {
+        String lastPeerId = null;
+
+        while (running) {
+            try {
+                // 상대가 연 연결로 이미 이어져 있으면 다시 연결하지 않음
+                if (lastPeerId == null || !connections.containsKey(lastPeerId)) {
+                    Socket socket = new Socket();
+                    // 매번 새로 조회해서 DNS 변경을 반영
+                    socket.connect(new InetSocketAddress(peer.getHostString(), peer.getPort()), 3000);
+                    PeerConnection connection = startConnection(socket, true);
+                    connection.awaitClose();
+                    lastPeerId = connection.peerId;
+                }
+            } catch (IOException e) {
+                log.debug("Cluster peer {} not reachable: {}", peer, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                Thread.sleep(reconnectIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private PeerConnection startConnection(Socket socket, boolean outbound) throws IOException {
+        socket.setTcpNoDelay(true);
+        socket.setKeepAlive(true);
+
+        PeerConnection connection = new PeerConnection(socket, outbound);
+        pending.add(connection);
+
+        Thread reader = new Thread(connection::readLoop, "cluster-peer-" + socket.getRemoteSocketAddress());
+        reader.setDaemon(true);
+        reader.start();
+        connection.writerThread.start();
+
+        connection.send("hello", toLine(helloMessage(connection)));
+        return connection;
+    }
+
+    private ClusterMessage helloMessage(PeerConnection connection) {
+        Map<String, Long> digest = new HashMap<>();
+        versions.forEach((name, version) -> digest.put(name, version.version));
+
+        return ClusterMessage.builder()
+                .type("hello")
+                .nodeId(nodeId)
+                .nonce(connection.nonce)
+                .digest(digest)
+                .build();
+    }
+
+    private String newNonce() {
+        byte[] nonce = new byte[16];
+        random.nextBytes(nonce);
+        return Base64.getEncoder().encodeToString(nonce);
+    }
+
+    /**
+     * 받는 쪽이 보낸 nonce와 보내는 노드 ID에 대한 HMAC
+     * (노드 ID를 포함해서 상대의 proof를 그대로 되돌려 보내는 반사 공격을 막음)
+     */
+    private byte[] proof(String nonce, String senderId) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            // 빈 secret도 키로 쓸 수 있도록 접두어를 붙임
+            byte[] key = ("monitoring-cluster:" + (secret != null ? secret : "")).getBytes(StandardCharsets.UTF_8);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            return mac.doFinal((nonce + "\n" + senderId).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC not available", e);
+        }
+    }
+
+    private void handleMessage(PeerConnection connection, ClusterMessage message) {
+        // 인증을 마치기 전에는 hello/auth 외의 메시지를 받지 않음
+        if (connection.peerId == null && !"hello".equals(message.getType()) && !"auth".equals(message.getType())) {
+            rejectedMessages.increment();
+            log.warn("Dropped cluster message '{}' before hello from {}",
+                    message.getType(), connection.socket.getRemoteSocketAddress());
+            return;
+        }
+        receivedCounts.computeIfAbsent(message.getType(), k -> new LongAdder()).increment();
+
+        switch (message.getType()) {
+            case "hello":
+                handleHello(connection, message);
+                break;
+            case "auth":
+                handleAuth(connection, message);
+                break;
+            case "state":
+                handleState(message);
+                break;
+            case "event":
+                webSocketService.broadcastLocal(message.getEvent());
+                break;
+            case "synced":
+                if (initialSync.complete(null)) {
+                    log.info("Initial cluster sync from {} complete", connection.peerId);
+                }
+                break;
+            case "viewers":
+                remoteViewers.put(connection.peerId, new PeerViewers(
+                        message.getSessions() != null ? message.getSessions() : 0,
+                        message.getViewed() != null ? message.getViewed() : Set.of()));
+                break;
+            default:
+                log.debug("Unknown cluster message type: {}", message.getType());
+        }
+    }
+
+    /**
+     * 상대 nonce에 대한 proof를 보냄. 상대의 proof를 확인하기 전까지는 연결로 인정하지 않음
+     */
+    private void handleHello(PeerConnection connection, ClusterMessage hello) {
+        if (connection.peerId != null || connection.peerNonce != null) {
+            return;
+        }
+        String peerId = hello.getNodeId();
+        if (peerId == null || hello.getNonce() == null || nodeId.equals(peerId)) {
+            connection.close();
+            return;
+        }
+        connection.helloNodeId = peerId;
+        connection.peerNonce = hello.getNonce();
+        connection.peerDigest = hello.getDigest() != null ? hello.getDigest() : Map.of();
+
+        connection.send("auth", toLine(ClusterMessage.builder()
+                .type("auth")
+                .nodeId(nodeId)
+                .proof(Base64.getEncoder().encodeToString(proof(connection.peerNonce, nodeId)))
+                .build()));
+    }
+
+    private void handleAuth(PeerConnection connection, ClusterMessage auth) {
+        if (connection.peerId != null) {
+            return;
+        }
+        byte[] received = decodeProof(auth.getProof());
+        boolean valid = connection.helloNodeId != null && received != null
+                && MessageDigest.isEqual(proof(connection.nonce, connection.helloNodeId), received);
+        if (!valid) {
+            authFailures.increment();
+            log.warn("Rejected cluster peer {} ({}): authentication failed",
+                    connection.helloNodeId, connection.socket.getRemoteSocketAddress());
+            connection.close();
+            return;
+        }
+        join(connection);
+    }
+
+    private static byte[] decodeProof(String proof) {
+        if (proof == null) {
+            return null;
+        }
+        try {
+            return Base64.getDecoder().decode(proof);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void join(PeerConnection connection) {
+        String peerId = connection.helloNodeId;
+        connection.peerId = peerId;
+        pending.remove(connection);
+
+        // 양쪽에서 동시에 연결한 경우 nodeId가 작은 쪽이 연 연결만 유지 (양쪽 모두 같은 결정을 내림)
+        synchronized (connections) {
+            PeerConnection existing = connections.get(peerId);
+            if (existing != null && existing != connection) {
+                boolean keepNew = connection.outbound == (nodeId.compareTo(peerId) < 0);
+                if (!keepNew) {
+                    connection.close();
+                    return;
+                }
+                existing.close();
+            }
+            connections.put(peerId, connection);
+        }
+
+        log.info("Cluster peer joined: {} ({})", peerId, connection.socket.getRemoteSocketAddress());
+
+        // 새 노드에는 변경이 없어도 현재 시청자 정보를 보냄
+        connection.send("viewers", toLine(viewersMessage(localViewers())));
+
+        // anti-entropy: 상대 digest보다 새로운 상태 전송
+        Map<String, Long> digest = connection.peerDigest;
+        containerStatusService.getAllStatus().forEach((name, status) -> {
+            Version version = versions.computeIfAbsent(name, k -> new Version(
+                    status.getLastUpdate() != null ? status.getLastUpdate() : 0, nodeId));
+            Long peerVersion = digest.get(name);
+            if (peerVersion == null || version.version > peerVersion) {
+                connection.sendBulk("state", toLine(stateMessage(status, version)));
+            }
+        });
+        // 같은 연결 큐로 보내므로 상대는 위 상태를 모두 받은 뒤에 받음
+        connection.sendBulk("synced", toLine(ClusterMessage.builder().type("synced").nodeId(nodeId).build()));
+    }
+
+    private void handleState(ClusterMessage message) {
+        ContainerStatus status = message.getStatus();
+        if (status == null || status.getContainerName() == null || message.getVersion() == null) {
+            return;
+        }
+
+        Version incoming = new Version(message.getVersion(), message.getOrigin());
+        observeVersion(incoming.version);
+
+        boolean[] accepted = {false};
+        versions.compute(status.getContainerName(), (name, current) -> {
+            if (current == null || incoming.isNewerThan(current)) {
+                accepted[0] = true;
+                return incoming;
+            }
+            return current;
+        });
+
+        if (!accepted[0]) {
+            staleUpdates.increment();
+            return;
+        }
+
+        containerStatusService.applyReplicatedStatus(status);
+        webSocketService.broadcastLocal(WebSocketMessage.of("container_status_update", status));
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        if (!enabled) {
+            return;
+        }
+
+        writer.gauge("cluster_peers_connected", "Connected cluster peers");
+        writer.sample("cluster_peers_connected").value(connections.size());
+
+        writer.gauge("cluster_initial_sync_complete", "1 once the first anti-entropy round from a peer has been received");
+        writer.sample("cluster_initial_sync_complete").value(initialSync.isDone() ? 1 : 0);
+
+        writer.gauge("cluster_remote_sessions", "Dashboard sessions connected to other cluster nodes");
+        writer.sample("cluster_remote_sessions").value(getRemoteSessionCount());
+
+        writer.counter("cluster_messages_sent", "Cluster messages sent by type");
+        sentCounts.forEach((type, count) ->
+                writer.sample("cluster_messages_sent_total").label("type", type).value(count.sum()));
+
+        writer.counter("cluster_messages_received", "Cluster messages received by type");
+        receivedCounts.forEach((type, count) ->
+                writer.sample("cluster_messages_received_total").label("type", type).value(count.sum()));
+
+        writer.counter("cluster_state_stale", "Replicated states ignored because a newer version was known");
+        writer.sample("cluster_state_stale_total").value(staleUpdates.sum());
+
+        writer.counter("cluster_messages_rejected", "Cluster messages dropped because the peer had not authenticated");
+        writer.sample("cluster_messages_rejected_total").value(rejectedMessages.sum());
+
+        writer.counter("cluster_auth_failures", "Cluster connections closed because the peer proof did not match");
+        writer.sample("cluster_auth_failures_total").value(authFailures.sum());
+
+        writer.counter("cluster_send_queue_overflows", "Peer connections closed because their send queue was full");
+        writer.sample("cluster_send_queue_overflows_total").value(sendQueueOverflows.sum());
+    }
+
+    private static class Version {
+
+        private final long version;
+        private final String origin;
+
+        Version(long version, String origin) {
+            this.version = version;
+            this.origin = origin != null ? origin : "";
+        }
+
+        boolean isNewerThan(Version other) {
+            if (version != other.version) {
+                return version > other.version;
+            }
+            return origin.compareTo(other.origin) > 0;
+        }
+    }
+
+    private static class PeerViewers {
+
+        private final int sessions;
+        private final Set<String> viewed;
+
+        PeerViewers(int sessions, Set<String> viewed) {
+            this.sessions = sessions;
+            this.viewed = Set.copyOf(viewed);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PeerViewers other)) {
+                return false;
+            }
+            return sessions == other.sessions && viewed.equals(other.viewed);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sessions, viewed);
+        }
+    }
+
+    private static class Outbound {
+
+        private final String type;
+        private final String line;
+
+        Outbound(String type, String line) {
+            this.type = type;
+            this.line = line;
+        }
+    }
+
+    private class PeerConnection {
+
+        private final Socket socket;
+        private final boolean outbound;
+        private final BufferedWriter writer;
+        private final BlockingQueue<Outbound> sendQueue = new ArrayBlockingQueue<>(Math.max(1, sendQueueSize));
+        private final Thread writerThread;
+        private final String nonce = newNonce();
+        private volatile String peerNonce;
+        private volatile String helloNodeId;
+        private volatile Map<String, Long> peerDigest;
+        // 인증을 마친 뒤에만 설정
+        private volatile String peerId;
+        private volatile boolean closed;
+
+        PeerConnection(Socket socket, boolean outbound) throws IOException {
+            this.socket = socket;
+            this.outbound = outbound;
+            this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            this.writerThread = new Thread(this::writeLoop, "cluster-writer-" + socket.getRemoteSocketAddress());
+            this.writerThread.setDaemon(true);
+        }
+
+        /**
+         * 큐에 넣기만 하고 바로 반환. 큐가 가득 차면 메시지를 버리는 대신 연결을 끊음
+         * (상태 메시지를 빠뜨리면 재연결 전까지 노드 간 상태가 어긋나므로)
+         */
+        void send(String type, String line) {
+            enqueue(type, line, 0);
+        }
+
+        /**
+         * anti-entropy처럼 한 번에 많이 보내는 경우. 이 연결의 reader 스레드에서만 호출하므로 잠시 기다려도 됨
+         */
+        void sendBulk(String type, String line) {
+            enqueue(type, line, BULK_SEND_WAIT_MS);
+        }
+
+        private void enqueue(String type, String line, long waitMillis) {
+            if (closed || line == null) {
+                return;
+            }
+            boolean queued;
+            try {
+                queued = sendQueue.offer(new Outbound(type, line), waitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queued = false;
+            }
+            if (!queued && !closed) {
+                sendQueueOverflows.increment();
+                log.warn("Send queue to cluster peer {} is full ({} messages), disconnecting", peerId, sendQueue.size());
+                close();
+            }
+        }
+
+        private void writeLoop() {
+            try {
+                while (!closed) {
+                    Outbound message = sendQueue.take();
+                    do {
+                        writer.write(message.line);
+                        writer.write('\n');
+                        sentCounts.computeIfAbsent(message.type, k -> new LongAdder()).increment();
+                    } while ((message = sendQueue.poll()) != null);
+                    // 쌓인 메시지를 모아서 한 번에 flush
+                    writer.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Failed to send to cluster peer {}: {}", peerId, e.getMessage());
+                }
+            } finally {
+                close();
+            }
+        }
+
+        void readLoop() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while (!closed && (line = reader.readLine()) != null) {
+                    try {
+                        handleMessage(this, objectMapper.readValue(line, ClusterMessage.class));
+                    } catch (Exception e) {
+                        log.warn("Invalid cluster message from {}: {}", peerId, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    log.info("Cluster peer {} disconnected: {}", peerId, e.getMessage());
+                }
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                notifyAll();
+            }
+
+            pending.remove(this);
+            if (peerId != null && connections.remove(peerId, this)) {
+                remoteViewers.remove(peerId);
+            }
+            // 소켓을 닫으면 쓰기 중인 writer 스레드도 IOException으로 빠져나옴
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close cluster socket", e);
+            }
+            writerThread.interrupt();
+            sendQueue.clear();
+        }
+
+        synchronized void awaitClose() throws InterruptedException {
+            while (!closed) {
+                wait();
+            }
+        }
+    }
+}
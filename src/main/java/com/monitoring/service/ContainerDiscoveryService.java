@@ -0,0 +1,255 @@
+package com.monitoring.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Container;
+import com.monitoring.config.DockerProperties;
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 시작 시 컨테이너 탐색을 Spring 컨텍스트 시작 경로 밖에서 수행
+ * 전체 목록을 한 번 조회한 뒤 대상 컨테이너를 제한된 병렬도로 inspect
+ * 완료 전까지는 REST/WebSocket에 warming 상태를 알림
+ * 클러스터에서 docker-owner가 아닌 노드는 peer에게서 첫 anti-entropy 상태를 모두 받을 때까지 warming
+ */
+@Service
+@Slf4j
+public class ContainerDiscoveryService implements MetricsSource {
+
+    public enum State {
+        WARMING,
+        READY,
+        DOCKER_UNAVAILABLE
+    }
+
+    private final DockerClient dockerClient;
+    private final DockerApiCache dockerApiCache;
+    private final ContainerStatusService containerStatusService;
+    private final WebSocketService webSocketService;
+    private final DockerProperties dockerProperties;
+    private final ClusterService clusterService;
+    private final DeploymentAnalysisService deploymentAnalysisService;
+    private final DockerEventService dockerEventService;
+
+    @Value("${monitoring.discovery.parallelism:4}")
+    private int parallelism;
+
+    private volatile State state = State.WARMING;
+
+    // 단계별 소요 시간 (ms): ping, list, inspect, total
+    private final Map<String, Long> phaseMillis = new LinkedHashMap<>();
+
+    public ContainerDiscoveryService(
+            DockerClient dockerClient,
+            DockerApiCache dockerApiCache,
+            ContainerStatusService containerStatusService,
+            @Lazy WebSocketService webSocketService,
+            DockerProperties dockerProperties,
+            ClusterService clusterService,
+            DeploymentAnalysisService deploymentAnalysisService,
+            @Lazy DockerEventService dockerEventService) {
+        this.dockerClient = dockerClient;
+        this.dockerApiCache = dockerApiCache;
+        this.containerStatusService = containerStatusService;
+        this.webSocketService = webSocketService;
+        this.dockerProperties = dockerProperties;
+        this.clusterService = clusterService;
+        this.deploymentAnalysisService = deploymentAnalysisService;
+        this.dockerEventService = dockerEventService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startDiscovery() {
+        // 클러스터의 Docker 담당 노드가 아니면 상태는 peer 동기화로 받음
+        if (!clusterService.isDockerOwner()) {
+            long start = System.nanoTime();
+            clusterService.getInitialSync().thenRun(() -> {
+                recordPhase("sync", start);
+                state = State.READY;
+                finish(start);
+            });
+            return;
+        }
+
+        Thread thread = new Thread(this::discover, "container-discovery");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void discover() {
+        log.info("Initializing container status");
+        long start = System.nanoTime();
+        long phaseStart = start;
+
+        try {
+            // Docker 연결 테스트
+            dockerClient.pingCmd().exec();
+            log.info("Docker connection successful");
+            phaseStart = recordPhase("ping", phaseStart);
+
+            // 컨테이너 조회 (한 번만)
+            List<String> targets = new ArrayList<>();
+            for (Container container : dockerApiCache.listContainers()) {
+                String name = extractContainerName(container.getNames()[0]);
+                if (dockerProperties.getTargetContainers().contains(name)) {
+                    targets.add(name);
+                }
+            }
+            phaseStart = recordPhase("list", phaseStart);
+
+            inspectAll(targets);
+            recordPhase("inspect", phaseStart);
+
+            state = State.READY;
+        } catch (Exception e) {
+            log.warn("Docker not available (local development mode): {}", e.getMessage());
+            // 로컬 개발 시 에러 무시
+            state = State.DOCKER_UNAVAILABLE;
+        }
+
+        finish(start);
+    }
+
+    private void finish(long start) {
+        recordPhase("total", start);
+        log.info("Container discovery finished: state={}, phases={}", state, getPhaseMillis());
+
+        webSocketService.broadcast("monitor_state", getDiscoveryStatus());
+        webSocketService.broadcast("initial_status", containerStatusService.getAllStatus());
+    }
+
+    private void inspectAll(List<String> targets) {
+        if (targets.isEmpty()) {
+            return;
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(parallelism, targets.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "container-discovery-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        try {
+            CompletableFuture<?>[] tasks = targets.stream()
+                    .map(name -> CompletableFuture.runAsync(() -> inspect(name), executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(tasks).join();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void inspect(String containerName) {
+        try {
+            InspectContainerResponse info = dockerApiCache.inspectContainer(containerName);
+            containerStatusService.initializeFromInspect(containerName, info);
+            registerDependencies(containerName, info);
+            if (hasStarted(info.getState())) {
+                dockerEventService.markStarted(containerName);
+            }
+            log.info("Initialized status for container: {}", containerName);
+        } catch (Exception e) {
+            log.error("Failed to initialize container: {}", containerName, e);
+        }
+    }
+
+    private void registerDependencies(String containerName, InspectContainerResponse info) {
+        if (info.getConfig() == null) {
+            return;
+        }
+        InspectContainerResponse.ContainerState state = info.getState();
+        boolean healthcheck = info.getConfig().getHealthcheck() != null;
+        boolean ready = Boolean.TRUE.equals(state.getRunning())
+                && (!healthcheck || (state.getHealth() != null && "healthy".equals(state.getHealth().getStatus())));
+        deploymentAnalysisService.register(containerName, info.getConfig().getLabels(), healthcheck, ready,
+                startedAtMillis(state));
+    }
+
+    /**
+     * inspect의 StartedAt (데몬 시계, 배포 분석의 이벤트 시각과 같은 기준). 시작된 적 없거나 형식이 다르면 null
+     */
+    private Long startedAtMillis(InspectContainerResponse.ContainerState state) {
+        String startedAt = state.getStartedAt();
+        if (startedAt == null || startedAt.startsWith("0001-")) {
+            return null;
+        }
+        try {
+            return Instant.parse(startedAt).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 실행 중이거나 한 번이라도 시작된 적 있음 (시작된 적 없으면 StartedAt이 0001-01-01)
+     */
+    private boolean hasStarted(InspectContainerResponse.ContainerState state) {
+        return Boolean.TRUE.equals(state.getRunning())
+                || (state.getStartedAt() != null && !state.getStartedAt().startsWith("0001-"));
+    }
+
+    private long recordPhase(String phase, long phaseStart) {
+        long now = System.nanoTime();
+        synchronized (phaseMillis) {
+            phaseMillis.put(phase, (now - phaseStart) / 1_000_000);
+        }
+        return now;
+    }
+
+    private String extractContainerName(String fullName) {
+        // Docker는 컨테이너 이름을 "/name" 형식으로 반환
+        return fullName.startsWith("/") ? fullName.substring(1) : fullName;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isWarming() {
+        return state == State.WARMING;
+    }
+
+    public Map<String, Long> getPhaseMillis() {
+        synchronized (phaseMillis) {
+            return new LinkedHashMap<>(phaseMillis);
+        }
+    }
+
+    public Map<String, Object> getDiscoveryStatus() {
+        return Map.of(
+                "state", state.name().toLowerCase(),
+                "phases", getPhaseMillis()
+        );
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        writer.gauge("monitor_warming", "1 while startup container discovery is running");
+        writer.sample("monitor_warming").value(isWarming() ? 1 : 0);
+
+        writer.gauge("monitor_startup_phase_seconds", "Duration of each startup discovery phase");
+        getPhaseMillis().forEach((phase, millis) ->
+                writer.sample("monitor_startup_phase_seconds").label("phase", phase).value(millis / 1000.0));
+    }
+}
@@ -0,0 +1,558 @@
+package com.monitoring.service;
+
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
+import com.monitoring.model.ContainerQuery;
+import com.monitoring.model.ContainerStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 컨테이너 상태 조회 (top-N, 필터, compose 서비스별 집계)
+ *
+ * ContainerStatus가 바뀔 때마다 정렬 색인, 역색인, 서비스별 합계를 변경분만 갱신하고
+ * 요청 시에는 색인만 읽음 (containerStatusMap 전체 복사/정렬 없음)
+ * WebSocket 구독은 결과가 바뀐 경우에만 전송
+ * 재시작 횟수는 ContainerStatus.restarts (DockerEventService의 container_restarts와 같은 값)를 그대로 사용
+ */
+@Service
+@Slf4j
+public class ContainerQueryService implements MetricsSource {
+
+    public static final List<String> METRICS = List.of("cpu", "memory", "restarts");
+
+    private static final String COMPOSE_SERVICE_LABEL = "com.docker.compose.service";
+    private static final String NO_SERVICE = "(none)";
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final WebSocketService webSocketService;
+
+    // 세션당 구독 수 상한 (구독마다 변경 시 다시 계산하므로)
+    @Value("${monitoring.query.max-subscriptions-per-session:20}")
+    private int maxSubscriptionsPerSession;
+
+    // 컨테이너별 마지막으로 색인한 값
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // 정렬 색인: metric -> 값 내림차순 (값을 모르는 컨테이너는 제외)
+    private final Map<String, ConcurrentSkipListSet<Ranked>> rankings = new HashMap<>();
+
+    // 역색인: 값 -> 컨테이너 이름 (라벨은 "key=value"와 "key" 모두 색인)
+    private final Map<String, Set<String>> byPhase = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byStatus = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byLabel = new ConcurrentHashMap<>();
+
+    // compose 서비스별 합계 (이전 값을 빼고 새 값을 더함)
+    private final Map<String, ServiceAggregate> services = new ConcurrentHashMap<>();
+
+    // 세션 ID -> (구독 ID -> 구독)
+    private final Map<String, Map<String, Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    private final LongAdder indexUpdates = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder pushes = new LongAdder();
+    private final LongAdder rejectedSubscriptions = new LongAdder();
+
+    public ContainerQueryService(@Lazy WebSocketService webSocketService) {
+        this.webSocketService = webSocketService;
+        for (String metric : METRICS) {
+            rankings.put(metric, new ConcurrentSkipListSet<>(Ranked.ORDER));
+        }
+    }
+
+    public void index(ContainerStatus status) {
+        index(status, null);
+    }
+
+    /**
+     * 상태 변경을 색인에 반영. labels가 null이면 이전 라벨 유지
+     */
+    public synchronized void index(ContainerStatus status, Map<String, String> labels) {
+        String name = status.getContainerName();
+        if (name == null) {
+            return;
+        }
+
+        Entry previous = entries.get(name);
+        Entry next = Entry.of(status, previous, labels);
+        if (next.sameAs(previous)) {
+            return;
+        }
+
+        if (previous != null) {
+            unindex(previous);
+        }
+
+        entries.put(name, next);
+        for (String metric : METRICS) {
+            double value = next.value(metric);
+            if (!Double.isNaN(value)) {
+                rankings.get(metric).add(new Ranked(value, name));
+            }
+        }
+        addTo(byPhase, next.phase, name);
+        addTo(byStatus, next.status, name);
+        next.labels.forEach((key, value) -> {
+            addTo(byLabel, key, name);
+            addTo(byLabel, key + "=" + value, name);
+        });
+        services.computeIfAbsent(next.service, k -> new ServiceAggregate()).add(next, 1);
+
+        indexUpdates.increment();
+        dirty = true;
+    }
+
+    private void unindex(Entry entry) {
+        for (String metric : METRICS) {
+            double value = entry.value(metric);
+            if (!Double.isNaN(value)) {
+                rankings.get(metric).remove(new Ranked(value, entry.name));
+            }
+        }
+        removeFrom(byPhase, entry.phase, entry.name);
+        removeFrom(byStatus, entry.status, entry.name);
+        entry.labels.forEach((key, value) -> {
+            removeFrom(byLabel, key, entry.name);
+            removeFrom(byLabel, key + "=" + value, entry.name);
+        });
+
+        ServiceAggregate aggregate = services.get(entry.service);
+        if (aggregate != null && aggregate.add(entry, -1) == 0) {
+            services.remove(entry.service);
+        }
+    }
+
+    private void addTo(Map<String, Set<String>> index, String key, String name) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(name);
+        }
+    }
+
+    private void removeFrom(Map<String, Set<String>> index, String key, String name) {
+        if (key == null) {
+            return;
+        }
+        Set<String> names = index.get(key);
+        if (names != null) {
+            names.remove(name);
+            if (names.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * kind에 따라 top / filter / services 실행. 잘못된 조건이면 IllegalArgumentException
+     */
+    public List<Map<String, Object>> evaluate(ContainerQuery query) {
+        String kind = query.getKind() != null ? query.getKind() : "top";
+        switch (kind) {
+            case "top":
+                return top(query);
+            case "filter":
+                return filter(query);
+            case "services":
+                return services(query);
+            default:
+                throw new IllegalArgumentException("Unknown query kind: " + kind);
+        }
+    }
+
+    /**
+     * metric 값 기준 상위 N개 (정렬 색인을 앞에서부터 읽다가 limit에서 멈춤)
+     */
+    public List<Map<String, Object>> top(ContainerQuery query) {
+        String metric = query.getMetric() != null ? query.getMetric() : "cpu";
+        ConcurrentSkipListSet<Ranked> ranking = rankings.get(metric);
+        if (ranking == null) {
+            throw new IllegalArgumentException("Unknown metric: " + metric + " (expected one of " + METRICS + ")");
+        }
+        int limit = query.getLimit() != null && query.getLimit() > 0 ? query.getLimit() : DEFAULT_LIMIT;
+
+        evaluations.increment();
+        Set<String> matching = matchingNames(query);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Ranked ranked : ranking) {
+            if (rows.size() >= limit) {
+                break;
+            }
+            if (matching != null && !matching.contains(ranked.name)) {
+                continue;
+            }
+            Entry entry = entries.get(ranked.name);
+            if (entry != null) {
+                Map<String, Object> row = entry.toRow();
+                row.put("value", ranked.value);
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * phase / status / label 조건에 맞는 컨테이너 (이름순)
+     */
+    public List<Map<String, Object>> filter(ContainerQuery query) {
+        evaluations.increment();
+        Set<String> matching = matchingNames(query);
+        Iterable<String> names = matching != null ? matching : entries.keySet();
+
+        Map<String, Map<String, Object>> rows = new TreeMap<>();
+        for (String name : names) {
+            Entry entry = entries.get(name);
+            if (entry != null) {
+                rows.put(name, entry.toRow());
+            }
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    /**
+     * compose 서비스별 합계/평균
+     * 조건이 없으면 유지 중인 합계를 그대로 사용하고, 조건이 있으면 해당 컨테이너만 모아서 계산
+     */
+    public List<Map<String, Object>> services(ContainerQuery query) {
+        evaluations.increment();
+        Set<String> matching = matchingNames(query);
+
+        Map<String, ServiceAggregate> aggregates;
+        if (matching == null) {
+            synchronized (this) {
+                aggregates = new TreeMap<>();
+                services.forEach((service, aggregate) -> aggregates.put(service, aggregate.copy()));
+            }
+        } else {
+            aggregates = new TreeMap<>();
+            for (String name : matching) {
+                Entry entry = entries.get(name);
+                if (entry != null) {
+                    aggregates.computeIfAbsent(entry.service, k -> new ServiceAggregate()).add(entry, 1);
+                }
+            }
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        aggregates.forEach((service, aggregate) -> rows.add(aggregate.toRow(service)));
+        return rows;
+    }
+
+    /**
+     * 필터 조건의 교집합. 조건이 하나도 없으면 null
+     */
+    private Set<String> matchingNames(ContainerQuery query) {
+        Set<String> result = null;
+        result = intersect(result, byPhase, query.getPhase());
+        result = intersect(result, byStatus, query.getStatus());
+        result = intersect(result, byLabel, query.getLabel());
+        return result;
+    }
+
+    private Set<String> intersect(Set<String> current, Map<String, Set<String>> index, String key) {
+        if (key == null || key.isEmpty()) {
+            return current;
+        }
+        Set<String> names = index.getOrDefault(key, Set.of());
+        if (current == null) {
+            return new HashSet<>(names);
+        }
+        current.retainAll(names);
+        return current;
+    }
+
+    /**
+     * 세션에 구독 등록 후 현재 결과를 바로 전송
+     * 잘못된 조건이거나 세션의 구독 수가 상한이면 IllegalArgumentException (같은 ID로 다시 구독하면 교체)
+     */
+    public void subscribe(WebSocketSession session, String id, ContainerQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Missing query");
+        }
+        List<Map<String, Object>> result = evaluate(query);
+
+        Subscription subscription = new Subscription(session, query);
+        subscription.lastResult = result;
+        Map<String, Subscription> sessionSubscriptions =
+                subscriptions.computeIfAbsent(session.getId(), k -> new ConcurrentHashMap<>());
+        synchronized (sessionSubscriptions) {
+            if (!sessionSubscriptions.containsKey(id) && sessionSubscriptions.size() >= maxSubscriptionsPerSession) {
+                rejectedSubscriptions.increment();
+                throw new IllegalArgumentException(
+                        "Too many subscriptions (max " + maxSubscriptionsPerSession + " per session)");
+            }
+            sessionSubscriptions.put(id, subscription);
+        }
+
+        push(session, id, result);
+        log.debug("Session {} subscribed {}: {}", session.getId(), id, query);
+    }
+
+    public void unsubscribe(WebSocketSession session, String id) {
+        Map<String, Subscription> sessionSubscriptions = subscriptions.get(session.getId());
+        if (sessionSubscriptions != null) {
+            sessionSubscriptions.remove(id);
+        }
+    }
+
+    public void unsubscribeAll(WebSocketSession session) {
+        subscriptions.remove(session.getId());
+    }
+
+    /**
+     * 색인이 바뀌었으면 구독을 다시 계산해 결과가 달라진 것만 전송
+     * 같은 조건의 구독은 한 번만 계산
+     */
+    @Scheduled(fixedDelayString = "${monitoring.query.push-interval-ms:500}")
+    public void pushChanges() {
+        if (!dirty || subscriptions.isEmpty()) {
+            return;
+        }
+        dirty = false;
+
+        Map<ContainerQuery, List<Map<String, Object>>> results = new HashMap<>();
+        subscriptions.values().forEach(sessionSubscriptions ->
+                sessionSubscriptions.forEach((id, subscription) -> {
+                    try {
+                        List<Map<String, Object>> result = results.computeIfAbsent(subscription.query, this::evaluate);
+                        if (!result.equals(subscription.lastResult)) {
+                            subscription.lastResult = result;
+                            push(subscription.session, id, result);
+                        }
+                    } catch (Exception e) {
+                        log.error("Failed to evaluate subscription {}: {}", id, subscription.query, e);
+                    }
+                }));
+    }
+
+    private void push(WebSocketSession session, String id, List<Map<String, Object>> result) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", id);
+        data.put("result", result);
+        webSocketService.send(session, "query_result", data);
+        pushes.increment();
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        writer.gauge("query_subscriptions", "Live query subscriptions across WebSocket sessions");
+        writer.sample("query_subscriptions").value(subscriptions.values().stream().mapToLong(Map::size).sum());
+
+        writer.counter("query_subscriptions_rejected", "Subscribe requests rejected by the per-session limit");
+        writer.sample("query_subscriptions_rejected_total").value(rejectedSubscriptions.sum());
+
+        writer.counter("query_index_updates", "Status changes applied to the query indexes");
+        writer.sample("query_index_updates_total").value(indexUpdates.sum());
+
+        writer.counter("query_evaluations", "Queries answered from the indexes (REST and subscriptions)");
+        writer.sample("query_evaluations_total").value(evaluations.sum());
+
+        writer.counter("query_pushes", "Subscription results pushed because they changed");
+        writer.sample("query_pushes_total").value(pushes.sum());
+    }
+
+    /**
+     * "12.5%" -> 12.5 (표시 값과 같은 기준이므로 클러스터 복제 상태에도 그대로 적용)
+     */
+    private static double parseCpu(String cpu) {
+        if (cpu == null || !cpu.endsWith("%")) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(cpu.substring(0, cpu.length() - 1));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * "512.0MiB" / "1.25GiB" -> bytes
+     */
+    private static double parseMemory(String memory) {
+        if (memory == null) {
+            return Double.NaN;
+        }
+        try {
+            if (memory.endsWith("GiB")) {
+                return Double.parseDouble(memory.substring(0, memory.length() - 3)) * 1024 * 1024 * 1024;
+            }
+            if (memory.endsWith("MiB")) {
+                return Double.parseDouble(memory.substring(0, memory.length() - 3)) * 1024 * 1024;
+            }
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * 색인 시점의 컨테이너 값 (불변)
+     */
+    private static class Entry {
+
+        private final String name;
+        private final String phase;
+        private final String status;
+        private final double cpu;
+        private final double memory;
+        private final long restarts;
+        private final Map<String, String> labels;
+        private final String service;
+
+        private Entry(String name, String phase, String status, double cpu, double memory,
+                      long restarts, Map<String, String> labels) {
+            this.name = name;
+            this.phase = phase;
+            this.status = status;
+            this.cpu = cpu;
+            this.memory = memory;
+            this.restarts = restarts;
+            this.labels = labels;
+            this.service = labels.getOrDefault(COMPOSE_SERVICE_LABEL, NO_SERVICE);
+        }
+
+        static Entry of(ContainerStatus status, Entry previous, Map<String, String> labels) {
+            Map<String, String> resolvedLabels = labels != null
+                    ? Map.copyOf(labels)
+                    : previous != null ? previous.labels : Map.of();
+
+            return new Entry(status.getContainerName(), status.getPhase(), status.getStatus(),
+                    parseCpu(status.getCpu()), parseMemory(status.getMemory()),
+                    status.getRestarts() != null ? status.getRestarts() : 0, resolvedLabels);
+        }
+
+        double value(String metric) {
+            switch (metric) {
+                case "cpu":
+                    return cpu;
+                case "memory":
+                    return memory;
+                default:
+                    return restarts;
+            }
+        }
+
+        boolean sameAs(Entry other) {
+            return other != null
+                    && Objects.equals(phase, other.phase)
+                    && Objects.equals(status, other.status)
+                    && Double.compare(cpu, other.cpu) == 0
+                    && Double.compare(memory, other.memory) == 0
+                    && restarts == other.restarts
+                    && labels.equals(other.labels);
+        }
+
+        Map<String, Object> toRow() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("containerName", name);
+            row.put("service", service);
+            row.put("phase", phase);
+            row.put("status", status);
+            row.put("cpuPercent", Double.isNaN(cpu) ? null : cpu);
+            row.put("memoryBytes", Double.isNaN(memory) ? null : (long) memory);
+            row.put("restarts", restarts);
+            return row;
+        }
+    }
+
+    private static class Ranked {
+
+        static final Comparator<Ranked> ORDER = Comparator
+                .comparingDouble((Ranked ranked) -> ranked.value).reversed()
+                .thenComparing(ranked -> ranked.name);
+
+        private final double value;
+        private final String name;
+
+        Ranked(double value, String name) {
+            this.value = value;
+            this.name = name;
+        }
+    }
+
+    private static class ServiceAggregate {
+
+        private int containers;
+        private int running;
+        private int cpuCount;
+        private double cpuSum;
+        private int memoryCount;
+        private double memorySum;
+        private long restarts;
+
+        /**
+         * sign이 1이면 더하고 -1이면 뺌. 남은 컨테이너 수 반환
+         */
+        int add(Entry entry, int sign) {
+            containers += sign;
+            if ("running".equals(entry.phase)) {
+                running += sign;
+            }
+            if (!Double.isNaN(entry.cpu)) {
+                cpuCount += sign;
+                cpuSum += sign * entry.cpu;
+            }
+            if (!Double.isNaN(entry.memory)) {
+                memoryCount += sign;
+                memorySum += sign * entry.memory;
+            }
+            restarts += sign * entry.restarts;
+            return containers;
+        }
+
+        ServiceAggregate copy() {
+            ServiceAggregate copy = new ServiceAggregate();
+            copy.containers = containers;
+            copy.running = running;
+            copy.cpuCount = cpuCount;
+            copy.cpuSum = cpuSum;
+            copy.memoryCount = memoryCount;
+            copy.memorySum = memorySum;
+            copy.restarts = restarts;
+            return copy;
+        }
+
+        Map<String, Object> toRow(String service) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("service", service);
+            row.put("containers", containers);
+            row.put("running", running);
+            row.put("cpuPercentSum", cpuCount > 0 ? cpuSum : null);
+            row.put("cpuPercentAvg", cpuCount > 0 ? cpuSum / cpuCount : null);
+            row.put("memoryBytesSum", memoryCount > 0 ? (long) memorySum : null);
+            row.put("memoryBytesAvg", memoryCount > 0 ? (long) (memorySum / memoryCount) : null);
+            row.put("restarts", restarts);
+            return row;
+        }
+    }
+
+    private static class Subscription {
+
+        private final WebSocketSession session;
+        private final ContainerQuery query;
+        private volatile List<Map<String, Object>> lastResult;
+
+        Subscription(WebSocketSession session, ContainerQuery query) {
+            this.session = session;
+            this.query = query;
+        }
+    }
+}
@@ -1,32 +1,44 @@
 package com.monitoring.service;
 
-import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.InspectContainerResponse;
-import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.Statistics;
 import com.monitoring.config.DockerProperties;
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
 import com.monitoring.model.ContainerStatus;
+import com.monitoring.model.FlapSummary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import jakarta.annotation.PostConstruct;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Slf4j
-public class ContainerStatusService {
+public class ContainerStatusService implements MetricsSource {
+
+    private static final List<String> PHASES = List.of(
+            "creating", "starting", "running", "stopping", "stopped", "removed", "killed", "flapping");
+
+    private static final long MIB = 1024L * 1024;
+    private static final long GIB = 1024L * 1024 * 1024;
 
-    private final DockerClient dockerClient;
     private final WebSocketService webSocketService;
     private final DockerProperties dockerProperties;
+    private final CgroupStatsService cgroupStatsService;
+    private final DockerApiCache dockerApiCache;
+    private final ContainerQueryService containerQueryService;
+    private final DeploymentAnalysisService deploymentAnalysisService;
 
     @Value("${docker.target-containers}")
     private List<String> targetContainers;
@@ -34,44 +46,105 @@ public class ContainerStatusService {
     // 모든 컨테이너 상태를 메모리에 저장
     private final Map<String, ContainerStatus> containerStatusMap = new ConcurrentHashMap<>();
 
+    // 실행 중인 컨테이너의 시작 시각 (uptime 메트릭용, epoch millis)
+    private final Map<String, Long> startedAtMap = new ConcurrentHashMap<>();
+
+    // 샘플링으로 마지막에 표시한 값 (숫자가 같고 문자열이 그대로면 문자열을 다시 만들지 않음)
+    private final Map<String, Displayed> displayedMap = new ConcurrentHashMap<>();
+
     public ContainerStatusService(
-            DockerClient dockerClient,
             @Lazy WebSocketService webSocketService,
-            DockerProperties dockerProperties) {
-        this.dockerClient = dockerClient;
+            DockerProperties dockerProperties,
+            CgroupStatsService cgroupStatsService,
+            DockerApiCache dockerApiCache,
+            ContainerQueryService containerQueryService,
+            @Lazy DeploymentAnalysisService deploymentAnalysisService) {
         this.webSocketService = webSocketService;
         this.dockerProperties = dockerProperties;
+        this.cgroupStatsService = cgroupStatsService;
+        this.dockerApiCache = dockerApiCache;
+        this.containerQueryService = containerQueryService;
+        this.deploymentAnalysisService = deploymentAnalysisService;
     }
 
-    @PostConstruct
-    public void initializeContainerStatus() {
-        log.info("Initializing container status");
-
-        try {
-            // Docker 연결 테스트
-            dockerClient.pingCmd().exec();
-            log.info("Docker connection successful");
+    /**
+     * 시작 시 탐색한 inspect 결과로 초기 상태 생성
+     * 탐색 도중 이벤트로 이미 상태가 만들어졌다면 더 최신이므로 유지
+     */
+    public void initializeFromInspect(String containerName, InspectContainerResponse info) {
+        InspectContainerResponse.ContainerState state = info.getState();
+
+        ContainerStatus status = ContainerStatus.builder()
+                .containerName(containerName)
+                .lastUpdate(System.currentTimeMillis())
+                .build();
+        applyInspectState(status, state);
+        Map<String, String> labels = info.getConfig() != null ? info.getConfig().getLabels() : null;
+
+        ContainerStatus existing = containerStatusMap.putIfAbsent(containerName, status);
+        if (existing != null) {
+            log.debug("Status for {} already set by events, skipping discovery result", containerName);
+            containerQueryService.index(existing, labels);
+            return;
+        }
 
-            // 컨테이너 조회
-            List<Container> containers = dockerClient.listContainersCmd()
-                    .withShowAll(true)
-                    .exec();
+        if (Boolean.TRUE.equals(state.getRunning())) {
+            recordStartedAt(containerName, state.getStartedAt());
+            if (state.getStartedAt() != null) {
+                status.setUptime(calculateUptime(state.getStartedAt()));
+            }
+            updateContainerStats(containerName, info.getId());
+        }
 
-            for (Container container : containers) {
-                String name = extractContainerName(container.getNames()[0]);
+        containerQueryService.index(status, labels);
+    }
 
-                if (dockerProperties.getTargetContainers().contains(name)) {
-                    updateContainerInfo(name);
-                    log.info("Initialized status for container: {}", name);
+    private void applyInspectState(ContainerStatus status, InspectContainerResponse.ContainerState state) {
+        String dockerStatus = state.getStatus() != null ? state.getStatus() : "unknown";
+        String health = state.getHealth() != null ? state.getHealth().getStatus() : null;
+
+        switch (dockerStatus) {
+            case "running":
+                if ("starting".equals(health)) {
+                    status.setPhase("starting");
+                    status.setProgress(50);
+                    status.setStatus("starting");
+                } else {
+                    status.setPhase("running");
+                    status.setProgress(100);
+                    status.setStatus("running");
                 }
-            }
-        } catch (Exception e) {
-            log.warn("Docker not available (local development mode): {}", e.getMessage());
-            // 로컬 개발 시 에러 무시
+                break;
+            case "restarting":
+                status.setPhase("starting");
+                status.setProgress(50);
+                status.setStatus("restarting");
+                break;
+            case "created":
+                status.setPhase("creating");
+                status.setProgress(10);
+                status.setStatus("created");
+                break;
+            case "exited":
+            case "dead":
+            case "paused":
+                status.setPhase("stopped");
+                status.setProgress(0);
+                status.setStatus(dockerStatus);
+                break;
+            default:
+                status.setStatus(dockerStatus);
         }
     }
 
     public void updateStatus(String containerName, String eventType) {
+        updateStatus(containerName, eventType, true);
+    }
+
+    /**
+     * broadcast가 false면 메모리 상태만 갱신 (이벤트 레이트 리밋 시 사용)
+     */
+    public void updateStatus(String containerName, String eventType, boolean broadcast) {
         ContainerStatus status = containerStatusMap.getOrDefault(
                 containerName,
                 ContainerStatus.builder()
@@ -120,39 +193,99 @@ public class ContainerStatusService {
                 status.setStatus(eventType);
         }
 
+        status.setFlapping(null);
         status.setLastUpdate(System.currentTimeMillis());
         containerStatusMap.put(containerName, status);
 
+        if ("die".equals(eventType) || "kill".equals(eventType) || "destroy".equals(eventType)) {
+            startedAtMap.remove(containerName);
+        }
+
         // 상세 정보 업데이트 (CPU, Memory 등)
         if ("start".equals(eventType) || eventType.contains("health_status")) {
             updateContainerInfo(containerName);
         }
 
+        containerQueryService.index(status);
+
         // WebSocket으로 브로드캐스트
-        webSocketService.broadcast("container_status_update", status);
+        if (broadcast) {
+            webSocketService.broadcast("container_status_update", status);
+        }
 
         log.debug("Updated status for {}: {} - {}", containerName, eventType, status.getPhase());
     }
 
+    /**
+     * 재시작 반복 중인 컨테이너를 단일 flapping 상태로 표시
+     */
+    public void markFlapping(String containerName, FlapSummary summary) {
+        ContainerStatus status = containerStatusMap.computeIfAbsent(
+                containerName,
+                name -> ContainerStatus.builder().containerName(name).build()
+        );
+
+        status.setPhase("flapping");
+        status.setStatus("flapping");
+        status.setProgress(0);
+        status.setFlapping(summary);
+        status.setLastUpdate(System.currentTimeMillis());
+        containerQueryService.index(status);
+
+        webSocketService.broadcast("container_status_update", status);
+    }
+
+    /**
+     * 재시작 횟수 갱신 (DockerEventService에서 집계). 브로드캐스트는 이어지는 상태 변경에 포함됨
+     * (flapping 중 억제된 start도 여기서는 반영되어 조회 결과와 /metrics가 같은 값을 보임)
+     */
+    public void setRestarts(String containerName, long restarts) {
+        ContainerStatus status = containerStatusMap.computeIfAbsent(
+                containerName,
+                name -> ContainerStatus.builder().containerName(name).build()
+        );
+        status.setRestarts(restarts);
+        containerQueryService.index(status);
+    }
+
+    /**
+     * 의존성 대기 상태 갱신 (DeploymentAnalysisService가 계산). 바뀐 경우에만 브로드캐스트
+     */
+    public void setWaitingFor(String containerName, String waitingFor) {
+        ContainerStatus status = containerStatusMap.get(containerName);
+        if (status == null || Objects.equals(status.getWaitingFor(), waitingFor)) {
+            return;
+        }
+
+        status.setWaitingFor(waitingFor);
+        status.setLastUpdate(System.currentTimeMillis());
+        webSocketService.broadcast("container_status_update", status);
+    }
+
+    /**
+     * 다른 클러스터 노드에서 받은 상태 반영 (버전 비교는 ClusterService에서 수행)
+     */
+    public void applyReplicatedStatus(ContainerStatus status) {
+        containerStatusMap.put(status.getContainerName(), status);
+        containerQueryService.index(status);
+    }
+
+    public void broadcastStatus(String containerName) {
+        ContainerStatus status = containerStatusMap.get(containerName);
+        if (status != null) {
+            webSocketService.broadcast("container_status_update", status);
+        }
+    }
+
     private void updateContainerInfo(String containerName) {
         try {
-            // 컨테이너 찾기
-            List<Container> containers = dockerClient.listContainersCmd()
-                    .withShowAll(true)
-                    .withNameFilter(List.of(containerName))
-                    .exec();
-
-            if (containers.isEmpty()) {
-                log.warn("Container not found: {}", containerName);
-                return;
-            }
+            // 상세 정보 조회 (이름으로 inspect - 짧은 시간 내 중복 호출은 캐시에서 처리)
+            InspectContainerResponse info = dockerApiCache.inspectContainer(containerName);
 
-            Container container = containers.get(0);
-
-            // 상세 정보 조회
-            InspectContainerResponse info = dockerClient
-                    .inspectContainerCmd(container.getId())
-                    .exec();
+            // 탐색 이후 생성된 컨테이너도 healthcheck 유무를 알아야 배포 분석에서 ready 시점을 판단할 수 있음
+            if (info.getConfig() != null) {
+                deploymentAnalysisService.updateHealthcheck(containerName, info.getConfig().getHealthcheck() != null);
+            }
 
             ContainerStatus status = containerStatusMap.get(containerName);
             if (status != null) {
@@ -163,10 +296,15 @@ public class ContainerStatusService {
 
                 // Stats는 실행 중일 때만 조회 가능
                 if (info.getState().getRunning()) {
-                    updateContainerStats(containerName, container.getId());
+                    recordStartedAt(containerName, info.getState().getStartedAt());
+                    updateContainerStats(containerName, info.getId());
                 }
+
+                containerQueryService.index(status, info.getConfig() != null ? info.getConfig().getLabels() : null);
             }
 
+        } catch (NotFoundException e) {
+            log.warn("Container not found: {}", containerName);
         } catch (Exception e) {
             log.error("Failed to update container info: {}", containerName, e);
         }
@@ -174,44 +312,128 @@ public class ContainerStatusService {
 
     private void updateContainerStats(String containerName, String containerId) {
         try {
-            // 비동기로 Stats 조회 (블로킹 방지)
-            // 실제로는 별도 스레드에서 주기적으로 조회하는 것이 좋음
-            // 여기서는 간단히 동기 방식으로 구현
-
             ContainerStatus status = containerStatusMap.get(containerName);
-            if (status != null) {
-                // 임시로 고정값 설정 (실제로는 Stats API 사용)
-                status.setCpu("N/A");
-                status.setMemory("N/A");
+            if (status == null) {
+                return;
+            }
+
+            // cgroup 모드: 같은 호스트의 cgroup 파일을 직접 읽음
+            if (cgroupStatsService.isEnabled()) {
+                cgroupStatsService.track(containerName, containerId);
+                if (cgroupStatsService.sample(containerName)) {
+                    applyResourceUsage(status, cgroupStatsService.getUsage(containerName));
+                }
+                return;
             }
 
+            // 임시로 고정값 설정 (실제로는 Stats API 사용)
+            status.setCpu("N/A");
+            status.setMemory("N/A");
+
         } catch (Exception e) {
             log.error("Failed to update container stats: {}", containerName, e);
         }
     }
 
-    private String calculateUptime(String startedAt) {
-        try {
-            Instant start = Instant.parse(startedAt);
-            Instant now = Instant.now();
-            Duration duration = Duration.between(start, now);
+    /**
+     * 리소스 사용량과 가동 시간을 다시 계산 (AdaptiveSamplingService가 주기 결정)
+     */
+    public void refreshContainer(String containerName) {
+        ContainerStatus status = containerStatusMap.get(containerName);
+        if (status == null) {
+            return;
+        }
+
+        boolean changed = false;
+
+        if (cgroupStatsService.isEnabled() && cgroupStatsService.sample(containerName)) {
+            changed = applyResourceUsage(status, cgroupStatsService.getUsage(containerName));
+        }
 
-            long hours = duration.toHours();
-            long minutes = duration.toMinutesPart();
+        Long startedAt = startedAtMap.get(containerName);
+        if (startedAt != null) {
+            Displayed displayed = displayedMap.computeIfAbsent(containerName, k -> new Displayed());
+            long uptimeMinutes = Math.max(0, System.currentTimeMillis() - startedAt) / 60_000;
+            if (uptimeMinutes != displayed.uptimeMinutes || !Objects.equals(status.getUptime(), displayed.uptime)) {
+                displayed.uptimeMinutes = uptimeMinutes;
+                displayed.uptime = formatUptime(Duration.ofMinutes(uptimeMinutes));
+                status.setUptime(displayed.uptime);
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            containerQueryService.index(status);
+            webSocketService.broadcast("container_status_update", status);
+        }
+    }
+
+    /**
+     * 사용량을 문자열로 변환해 반영. 값이 바뀌었으면 true
+     * 샘플마다 호출되므로 표시 자릿수로 반올림한 숫자가 그대로면 문자열을 만들지 않음
+     */
+    private boolean applyResourceUsage(ContainerStatus status, CgroupStatsService.ContainerUsage usage) {
+        if (usage == null) {
+            return false;
+        }
+        Displayed displayed = displayedMap.computeIfAbsent(status.getContainerName(), k -> new Displayed());
+        boolean changed = false;
+
+        long cpuTenths = Math.round(Math.max(0, usage.getCpuPercent()) * 10);
+        if (cpuTenths != displayed.cpuTenths || !Objects.equals(status.getCpu(), displayed.cpu)) {
+            displayed.cpuTenths = cpuTenths;
+            displayed.cpu = String.format("%d.%d%%", cpuTenths / 10, cpuTenths % 10);
+            status.setCpu(displayed.cpu);
+            changed = true;
+        }
 
-            if (hours > 0) {
-                return String.format("%dh %dm", hours, minutes);
-            } else {
-                return String.format("%dm", minutes);
+        // GiB는 소수 둘째 자리, MiB는 첫째 자리까지 (읽기 실패는 -1)
+        long memoryBytes = usage.getMemoryBytes();
+        boolean gib = memoryBytes >= GIB;
+        long memoryScaled = memoryBytes < 0 ? -1
+                : gib ? Math.round(memoryBytes * 100.0 / GIB)
+                : Math.round(memoryBytes * 10.0 / MIB);
+        if (memoryScaled != displayed.memoryScaled || gib != displayed.memoryGib
+                || !Objects.equals(status.getMemory(), displayed.memory)) {
+            displayed.memoryScaled = memoryScaled;
+            displayed.memoryGib = gib;
+            displayed.memory = memoryScaled < 0 ? "N/A"
+                    : gib ? String.format("%d.%02dGiB", memoryScaled / 100, memoryScaled % 100)
+                    : String.format("%d.%dMiB", memoryScaled / 10, memoryScaled % 10);
+            status.setMemory(displayed.memory);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void recordStartedAt(String containerName, String startedAt) {
+        try {
+            if (startedAt != null) {
+                startedAtMap.put(containerName, Instant.parse(startedAt).toEpochMilli());
             }
+        } catch (Exception e) {
+            log.debug("Failed to parse startedAt for {}: {}", containerName, startedAt);
+        }
+    }
+
+    private String calculateUptime(String startedAt) {
+        try {
+            Instant start = Instant.parse(startedAt);
+            return formatUptime(Duration.between(start, Instant.now()));
         } catch (Exception e) {
             return "N/A";
         }
     }
 
-    private String extractContainerName(String fullName) {
-        // Docker는 컨테이너 이름을 "/name" 형식으로 반환
-        return fullName.startsWith("/") ? fullName.substring(1) : fullName;
+    private String formatUptime(Duration duration) {
+        long hours = duration.toHours();
+        long minutes = duration.toMinutesPart();
+
+        if (hours > 0) {
+            return hours + "h " + minutes + "m";
+        } else {
+            return minutes + "m";
+        }
     }
 
     public Map<String, ContainerStatus> getAllStatus() {
@@ -221,4 +443,88 @@ public class ContainerStatusService {
     public ContainerStatus getStatus(String containerName) {
         return containerStatusMap.get(containerName);
     }
-}
\ No newline at end of file
+
+    public Set<String> getContainerNames() {
+        return containerStatusMap.keySet();
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        long now = System.currentTimeMillis();
+
+        writer.stateset("container_phase", "Current lifecycle phase of the container");
+        containerStatusMap.forEach((name, status) -> {
+            for (String phase : PHASES) {
+                writer.sample("container_phase")
+                        .label("container", name)
+                        .label("container_phase", phase)
+                        .value(phase.equals(status.getPhase()) ? 1 : 0);
+            }
+        });
+
+        writer.gauge("container_progress_percent", "Deployment progress of the container (0-100)");
+        containerStatusMap.forEach((name, status) -> {
+            if (status.getProgress() != null) {
+                writer.sample("container_progress_percent").label("container", name).value(status.getProgress());
+            }
+        });
+
+        writer.gauge("container_last_update_timestamp_seconds", "Time of the last status change");
+        containerStatusMap.forEach((name, status) -> {
+            if (status.getLastUpdate() != null) {
+                writer.sample("container_last_update_timestamp_seconds")
+                        .label("container", name)
+                        .value(status.getLastUpdate() / 1000.0);
+            }
+        });
+
+        writer.gauge("container_uptime_seconds", "Seconds since the container was started");
+        startedAtMap.forEach((name, startedAt) ->
+                writer.sample("container_uptime_seconds").label("container", name).value((now - startedAt) / 1000));
+
+        if (!cgroupStatsService.isEnabled()) {
+            return;
+        }
+
+        Map<String, CgroupStatsService.ContainerUsage> usages = cgroupStatsService.getUsages();
+
+        writer.gauge("container_cpu_percent", "CPU usage in percent of one core");
+        usages.forEach((name, usage) -> {
+            if (usage.getSampleCount() > 0) {
+                writer.sample("container_cpu_percent").label("container", name).value(usage.getCpuPercent());
+            }
+        });
+
+        writer.gauge("container_memory_working_set_bytes", "Memory usage excluding inactive file cache");
+        usages.forEach((name, usage) -> {
+            if (usage.getSampleCount() > 0) {
+                writer.sample("container_memory_working_set_bytes").label("container", name).value(usage.getMemoryBytes());
+            }
+        });
+
+        writer.counter("container_io_read_bytes", "Bytes read from block devices");
+        usages.forEach((name, usage) -> {
+            if (usage.getSampleCount() > 0) {
+                writer.sample("container_io_read_bytes_total").label("container", name).value(usage.getIoReadBytes());
+            }
+        });
+
+        writer.counter("container_io_write_bytes", "Bytes written to block devices");
+        usages.forEach((name, usage) -> {
+            if (usage.getSampleCount() > 0) {
+                writer.sample("container_io_write_bytes_total").label("container", name).value(usage.getIoWriteBytes());
+            }
+        });
+    }
+
+    private static class Displayed {
+
+        private long cpuTenths = -1;
+        private String cpu;
+        private long memoryScaled = -2;
+        private boolean memoryGib;
+        private String memory;
+        private long uptimeMinutes = -1;
+        private String uptime;
+    }
+}
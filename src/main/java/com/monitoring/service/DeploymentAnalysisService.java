@@ -0,0 +1,618 @@
+package com.monitoring.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
+import com.monitoring.model.ContainerTiming;
+import com.monitoring.model.RolloutReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * compose depends_on 라벨로 컨테이너 의존성 그래프를 만들고 배포(rollout)별 시작 과정을 분석
+ *
+ * - create -> start -> healthy 시각을 이벤트로 기록
+ * - 생성됐지만 의존성이 준비되지 않아 시작하지 못한 컨테이너의 waitingFor 갱신
+ * - 배포가 끝나면 가장 늦게 ready된 컨테이너까지의 의존성 사슬(critical path)을 계산해 브로드캐스트
+ * - 최근 배포 기록과 비교해 느려진 컨테이너 표시 (기록은 history-file에 저장해 재시작 후에도 유지)
+ *
+ * 모든 시각은 Docker 데몬 시계(이벤트 시각, inspect StartedAt) 기준. 제한 시간 확인도 같은 시계로 잼
+ */
+@Service
+@Slf4j
+public class DeploymentAnalysisService implements MetricsSource {
+
+    private static final String PROJECT_LABEL = "com.docker.compose.project";
+    private static final String SERVICE_LABEL = "com.docker.compose.service";
+    private static final String DEPENDS_ON_LABEL = "com.docker.compose.depends_on";
+
+    private final ContainerStatusService containerStatusService;
+    private final WebSocketService webSocketService;
+
+    @Value("${monitoring.rollout.settle-ms:10000}")
+    private long settleMs;
+
+    @Value("${monitoring.rollout.max-duration-ms:600000}")
+    private long maxDurationMs;
+
+    @Value("${monitoring.rollout.history-size:20}")
+    private int historySize;
+
+    // 비우면 메모리에만 보관 (재시작하면 비교 기준이 사라짐)
+    @Value("${monitoring.rollout.history-file:rollout-history.json}")
+    private String historyFile;
+
+    @Value("${monitoring.rollout.regression-ratio:1.5}")
+    private double regressionRatio;
+
+    @Value("${monitoring.rollout.regression-min-ms:1000}")
+    private long regressionMinMs;
+
+    // 컨테이너 이름 -> 그래프 노드
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+
+    // 진행 중인 배포 (없으면 null)
+    private Rollout rollout;
+
+    // 최근 배포 결과 (앞쪽이 최신)
+    private final Deque<RolloutReport> history = new ArrayDeque<>();
+
+    // 데몬 시계 기준 현재 시각 추정용: 마지막으로 받은 가장 늦은 이벤트 시각과 받은 시점의 nanoTime
+    private boolean eventClockSet;
+    private long eventClockTime;
+    private long eventClockNanos;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LongAdder rolloutCount = new LongAdder();
+    private final LongAdder regressionCount = new LongAdder();
+
+    public DeploymentAnalysisService(
+            ContainerStatusService containerStatusService,
+            @Lazy WebSocketService webSocketService) {
+        this.containerStatusService = containerStatusService;
+        this.webSocketService = webSocketService;
+    }
+
+    /**
+     * 저장된 배포 기록 복원
+     */
+    @PostConstruct
+    public void loadHistory() {
+        if (historyFile == null || historyFile.isBlank()) {
+            return;
+        }
+        Path path = Path.of(historyFile);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            List<RolloutReport> reports = objectMapper.readValue(path.toFile(), new TypeReference<List<RolloutReport>>() {});
+            synchronized (this) {
+                history.clear();
+                reports.stream().limit(historySize).forEach(history::addLast);
+            }
+            log.info("Loaded {} rollout reports from {}", history.size(), path);
+        } catch (IOException e) {
+            log.warn("Failed to load rollout history from {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 임시 파일에 쓴 뒤 교체해 쓰는 도중 종료돼도 이전 기록이 남도록 함
+     */
+    private void saveHistory(List<RolloutReport> reports) {
+        if (historyFile == null || historyFile.isBlank()) {
+            return;
+        }
+        Path path = Path.of(historyFile).toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), reports);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to save rollout history to {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 시작 시 탐색한 inspect 결과 반영. 이미 실행 중이면 ready로 간주 (이후 배포에서 의존성 충족)
+     * startedAt은 inspect의 StartedAt (데몬 시계). 알 수 없으면 null
+     */
+    public void register(String containerName, Map<String, String> labels, boolean healthcheck,
+                         boolean ready, Long startedAt) {
+        synchronized (this) {
+            Node node = nodes.computeIfAbsent(containerName, k -> new Node());
+            node.applyLabels(labels);
+            node.healthcheck = healthcheck;
+            if (ready && node.readyAt == null) {
+                long at = startedAt != null ? startedAt : eventNow();
+                node.startedAt = at;
+                node.readyAt = at;
+            }
+        }
+        applyWaitingFor();
+    }
+
+    /**
+     * start 시 inspect로 확인한 healthcheck 유무 반영
+     * start 이벤트에서 healthcheck를 몰라 start 시각을 ready로 가정했다면 healthy 이벤트까지 ready를 미룸
+     */
+    public void updateHealthcheck(String containerName, boolean healthcheck) {
+        synchronized (this) {
+            Node node = nodes.computeIfAbsent(containerName, k -> new Node());
+            if (node.healthcheck == healthcheck) {
+                return;
+            }
+            node.healthcheck = healthcheck;
+
+            boolean running = node.startedAt != null && node.exitedAt == null;
+            if (healthcheck && running && Objects.equals(node.readyAt, node.startedAt)) {
+                node.readyAt = null;
+            } else if (!healthcheck && running && node.readyAt == null) {
+                node.readyAt = node.startedAt;
+            }
+        }
+        applyWaitingFor();
+    }
+
+    /**
+     * Docker 이벤트 반영. attributes는 이벤트 Actor 속성 (컨테이너 라벨 포함)
+     */
+    public void onEvent(String containerName, String eventType, Map<String, String> attributes, long time) {
+        if (eventType == null) {
+            return;
+        }
+
+        synchronized (this) {
+            Node node = nodes.computeIfAbsent(containerName, k -> new Node());
+            node.applyLabels(attributes);
+            advanceEventClock(time);
+
+            boolean lifecycle = "create".equals(eventType) || "start".equals(eventType);
+            if (rollout == null && lifecycle) {
+                rollout = new Rollout(time);
+                log.info("Rollout started by {} {}", containerName, eventType);
+            }
+            if (rollout != null) {
+                rollout.participants.add(containerName);
+                rollout.lastEventAt = Math.max(rollout.lastEventAt, time);
+            }
+
+            switch (eventType) {
+                case "create":
+                    node.createdAt = time;
+                    node.startedAt = null;
+                    node.readyAt = null;
+                    node.exitedAt = null;
+                    node.exitCode = null;
+                    break;
+                case "start":
+                    // create 없이 재시작된 경우 이번 배포 시작 시각을 생성 시각으로 사용
+                    if (node.createdAt == null || (rollout != null && node.createdAt < rollout.startedAt)) {
+                        node.createdAt = time;
+                    }
+                    node.startedAt = time;
+                    node.readyAt = node.healthcheck ? null : time;
+                    node.exitedAt = null;
+                    node.exitCode = null;
+                    break;
+                case "health_status: healthy":
+                    // healthcheck 유무를 모르던 컨테이너는 start 시각을 ready로 가정했으므로 교체
+                    if (!node.healthcheck || node.readyAt == null) {
+                        node.readyAt = time;
+                    }
+                    node.healthcheck = true;
+                    break;
+                case "health_status: unhealthy":
+                    node.healthcheck = true;
+                    break;
+                case "die":
+                case "kill":
+                case "stop":
+                case "destroy":
+                case "flapping":
+                    if (node.exitedAt == null) {
+                        node.exitedAt = time;
+                    }
+                    if (attributes != null && attributes.get("exitCode") != null) {
+                        node.exitCode = attributes.get("exitCode");
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        applyWaitingFor();
+    }
+
+    private void advanceEventClock(long time) {
+        if (!eventClockSet || time > eventNow()) {
+            eventClockTime = time;
+            eventClockNanos = System.nanoTime();
+            eventClockSet = true;
+        }
+    }
+
+    /**
+     * 데몬 시계 기준 현재 시각: 마지막 이벤트 시각 + 그 뒤 흐른 시간 (모니터 호스트 시계와 어긋나도 영향 없음)
+     * 이벤트를 받기 전에는 로컬 시계
+     */
+    private long eventNow() {
+        return eventClockSet
+                ? eventClockTime + (System.nanoTime() - eventClockNanos) / 1_000_000
+                : System.currentTimeMillis();
+    }
+
+    /**
+     * 생성 후 시작하지 못한 컨테이너의 waitingFor를 준비되지 않은 의존 컨테이너로 설정
+     */
+    private void applyWaitingFor() {
+        Map<String, String> waiting = new HashMap<>();
+        synchronized (this) {
+            nodes.forEach((name, node) -> {
+                String value = null;
+                if (node.createdAt != null && node.startedAt == null && node.exitedAt == null) {
+                    List<String> unmet = new ArrayList<>();
+                    for (Dependency dependency : node.dependsOn) {
+                        for (String dependencyName : containersOf(node.project, dependency.service)) {
+                            if (!satisfied(nodes.get(dependencyName), dependency.condition)) {
+                                unmet.add(dependencyName);
+                            }
+                        }
+                    }
+                    value = unmet.isEmpty() ? null : String.join(", ", unmet);
+                }
+                if (!Objects.equals(value, node.waitingFor)) {
+                    node.waitingFor = value;
+                    waiting.put(name, value);
+                }
+            });
+        }
+
+        waiting.forEach(containerStatusService::setWaitingFor);
+    }
+
+    private boolean satisfied(Node dependency, String condition) {
+        if (dependency == null) {
+            return true;
+        }
+        switch (condition) {
+            case "service_healthy":
+                return dependency.readyAt != null && dependency.healthcheck && dependency.exitedAt == null;
+            case "service_completed_successfully":
+                return dependency.exitedAt != null && "0".equals(dependency.exitCode);
+            default:
+                return dependency.startedAt != null;
+        }
+    }
+
+    /**
+     * depends_on 조건이 충족된 시각 (satisfied와 같은 기준): service_healthy는 ready, service_completed_successfully는 종료, 그 외는 start
+     */
+    private Long satisfiedAt(Node dependency, String condition) {
+        if (dependency == null) {
+            return null;
+        }
+        switch (condition) {
+            case "service_healthy":
+                return dependency.readyAt;
+            case "service_completed_successfully":
+                return dependency.exitedAt;
+            default:
+                return dependency.startedAt;
+        }
+    }
+
+    private List<String> containersOf(String project, String service) {
+        List<String> names = new ArrayList<>();
+        nodes.forEach((name, node) -> {
+            if (Objects.equals(project, node.project) && service.equals(node.service)) {
+                names.add(name);
+            }
+        });
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * 모든 참여 컨테이너가 ready(또는 종료)되고 settle-ms 동안 이벤트가 없으면 배포 종료
+     */
+    @Scheduled(fixedDelayString = "${monitoring.rollout.check-interval-ms:1000}")
+    public void checkRollout() {
+        RolloutReport report;
+        List<RolloutReport> snapshot;
+        synchronized (this) {
+            if (rollout == null) {
+                return;
+            }
+
+            long now = eventNow();
+            boolean timedOut = now - rollout.startedAt >= maxDurationMs;
+            boolean settled = now - rollout.lastEventAt >= settleMs
+                    && rollout.participants.stream()
+                    .map(nodes::get)
+                    .allMatch(node -> node == null || node.readyAt != null || node.exitedAt != null);
+
+            if (!settled && !timedOut) {
+                return;
+            }
+
+            report = buildReport(rollout, now, timedOut && !settled);
+            rollout = null;
+
+            history.addFirst(report);
+            while (history.size() > historySize) {
+                history.removeLast();
+            }
+            snapshot = new ArrayList<>(history);
+        }
+        saveHistory(snapshot);
+
+        rolloutCount.increment();
+        regressionCount.add(report.getRegressions().size());
+        log.info("Rollout finished in {}ms, critical path: {}, regressions: {}",
+                report.getDurationMs(), report.getCriticalPath(), report.getRegressions());
+
+        webSocketService.broadcast("rollout_report", report);
+    }
+
+    private RolloutReport buildReport(Rollout rollout, long now, boolean timedOut) {
+        Map<String, ContainerTiming> timings = new TreeMap<>();
+        long lastReadyAt = rollout.startedAt;
+        String last = null;
+
+        for (String name : rollout.participants) {
+            Node node = nodes.get(name);
+            if (node == null) {
+                continue;
+            }
+
+            List<String> dependsOn = new ArrayList<>();
+            String gatedBy = null;
+            long gateAt = Long.MIN_VALUE;
+            for (Dependency dependency : node.dependsOn) {
+                for (String dependencyName : containersOf(node.project, dependency.service)) {
+                    dependsOn.add(dependencyName);
+                    // 이번 배포에서 조건을 가장 늦게 충족한 의존성이 시작을 막은 것
+                    Long satisfiedAt = rollout.participants.contains(dependencyName)
+                            ? satisfiedAt(nodes.get(dependencyName), dependency.condition)
+                            : null;
+                    if (satisfiedAt != null && satisfiedAt > gateAt) {
+                        gateAt = satisfiedAt;
+                        gatedBy = dependencyName;
+                    }
+                }
+            }
+
+            ContainerTiming timing = ContainerTiming.builder()
+                    .containerName(name)
+                    .dependsOn(dependsOn)
+                    .createdAt(node.createdAt)
+                    .startedAt(node.startedAt)
+                    .readyAt(node.readyAt)
+                    .waitMs(between(node.createdAt, node.startedAt))
+                    .startupMs(between(node.startedAt, node.readyAt))
+                    .readyOffsetMs(between(rollout.startedAt, node.readyAt))
+                    .gatedBy(gatedBy)
+                    .build();
+            timings.put(name, timing);
+
+            // 준비되지 못한 컨테이너는 배포 종료 시각까지 걸린 것으로 봄 (정상 종료한 일회성 컨테이너는 종료 시각)
+            long finishedAt = node.readyAt != null ? node.readyAt
+                    : node.exitedAt != null ? node.exitedAt : now;
+            if (last == null || finishedAt > lastReadyAt) {
+                lastReadyAt = finishedAt;
+                last = name;
+            }
+        }
+
+        // 가장 늦게 끝난 컨테이너에서 gatedBy를 따라 거슬러 올라감
+        List<String> criticalPath = new ArrayList<>();
+        Set<String> visited = new LinkedHashSet<>();
+        for (String name = last; name != null && visited.add(name); ) {
+            criticalPath.add(0, name);
+            ContainerTiming timing = timings.get(name);
+            name = timing != null ? timing.getGatedBy() : null;
+        }
+
+        List<String> regressions = compareWithHistory(timings);
+        long durationMs = lastReadyAt - rollout.startedAt;
+
+        return RolloutReport.builder()
+                .startedAt(rollout.startedAt)
+                .finishedAt(lastReadyAt)
+                .durationMs(durationMs)
+                .baselineDurationMs(average(history.stream().map(RolloutReport::getDurationMs).toList()))
+                .timedOut(timedOut)
+                .criticalPath(criticalPath)
+                .containers(new ArrayList<>(timings.values()))
+                .regressions(regressions)
+                .build();
+    }
+
+    /**
+     * 컨테이너별 startupMs를 최근 배포 평균과 비교
+     */
+    private List<String> compareWithHistory(Map<String, ContainerTiming> timings) {
+        List<String> regressions = new ArrayList<>();
+        timings.forEach((name, timing) -> {
+            List<Long> previous = new ArrayList<>();
+            for (RolloutReport report : history) {
+                for (ContainerTiming past : report.getContainers()) {
+                    if (name.equals(past.getContainerName()) && past.getStartupMs() != null) {
+                        previous.add(past.getStartupMs());
+                    }
+                }
+            }
+
+            Long baseline = average(previous);
+            boolean regression = baseline != null && timing.getStartupMs() != null
+                    && timing.getStartupMs() > baseline * regressionRatio
+                    && timing.getStartupMs() - baseline >= regressionMinMs;
+
+            timing.setBaselineStartupMs(baseline);
+            timing.setRegression(regression);
+            if (regression) {
+                regressions.add(name);
+            }
+        });
+        return regressions;
+    }
+
+    private Long average(List<Long> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        long sum = 0;
+        for (Long value : values) {
+            sum += value;
+        }
+        return sum / values.size();
+    }
+
+    private Long between(Long from, Long to) {
+        return from != null && to != null ? to - from : null;
+    }
+
+    /**
+     * 컨테이너 -> 의존 컨테이너 목록
+     */
+    public synchronized Map<String, List<String>> getDependencyGraph() {
+        Map<String, List<String>> graph = new TreeMap<>();
+        nodes.forEach((name, node) -> {
+            List<String> dependsOn = new ArrayList<>();
+            for (Dependency dependency : node.dependsOn) {
+                dependsOn.addAll(containersOf(node.project, dependency.service));
+            }
+            graph.put(name, dependsOn);
+        });
+        return graph;
+    }
+
+    public synchronized List<RolloutReport> getHistory() {
+        return new ArrayList<>(history);
+    }
+
+    public synchronized RolloutReport getLatest() {
+        return history.peekFirst();
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        RolloutReport latest = getLatest();
+
+        writer.counter("rollouts", "Completed rollouts");
+        writer.sample("rollouts_total").value(rolloutCount.sum());
+
+        writer.counter("rollout_regressions", "Containers whose startup was much slower than their recent average");
+        writer.sample("rollout_regressions_total").value(regressionCount.sum());
+
+        writer.gauge("rollout_in_progress", "1 while a rollout is being tracked");
+        synchronized (this) {
+            writer.sample("rollout_in_progress").value(rollout != null ? 1 : 0);
+        }
+
+        if (latest == null) {
+            return;
+        }
+
+        writer.gauge("rollout_duration_seconds", "Duration of the last rollout until its last container was ready");
+        writer.sample("rollout_duration_seconds").value(latest.getDurationMs() / 1000.0);
+
+        writer.gauge("container_startup_seconds", "Start to ready time of each container in the last rollout");
+        for (ContainerTiming timing : latest.getContainers()) {
+            if (timing.getStartupMs() != null) {
+                writer.sample("container_startup_seconds")
+                        .label("container", timing.getContainerName())
+                        .value(timing.getStartupMs() / 1000.0);
+            }
+        }
+    }
+
+    private static class Node {
+
+        private String project;
+        private String service;
+        private List<Dependency> dependsOn = List.of();
+        private boolean healthcheck;
+
+        private Long createdAt;
+        private Long startedAt;
+        private Long readyAt;
+        private Long exitedAt;
+        private String exitCode;
+        private String waitingFor;
+
+        /**
+         * depends_on 라벨 형식: "db:service_healthy:false,redis:service_started:false"
+         */
+        void applyLabels(Map<String, String> labels) {
+            if (labels == null || !labels.containsKey(SERVICE_LABEL)) {
+                return;
+            }
+            project = labels.get(PROJECT_LABEL);
+            service = labels.get(SERVICE_LABEL);
+
+            List<Dependency> dependencies = new ArrayList<>();
+            String dependsOnLabel = labels.get(DEPENDS_ON_LABEL);
+            if (dependsOnLabel != null && !dependsOnLabel.isBlank()) {
+                for (String entry : dependsOnLabel.split(",")) {
+                    String[] parts = entry.trim().split(":");
+                    if (!parts[0].isEmpty()) {
+                        dependencies.add(new Dependency(parts[0], parts.length > 1 ? parts[1] : "service_started"));
+                    }
+                }
+            }
+            dependsOn = dependencies;
+        }
+    }
+
+    private static class Dependency {
+
+        private final String service;
+        private final String condition;
+
+        Dependency(String service, String condition) {
+            this.service = service;
+            this.condition = condition;
+        }
+    }
+
+    private static class Rollout {
+
+        private final long startedAt;
+        private long lastEventAt;
+        private final Set<String> participants = new LinkedHashSet<>();
+
+        Rollout(long startedAt) {
+            this.startedAt = startedAt;
+            this.lastEventAt = startedAt;
+        }
+    }
+}
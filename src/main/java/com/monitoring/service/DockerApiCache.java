@@ -0,0 +1,96 @@
+package com.monitoring.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Container;
+import com.monitoring.cache.SingleFlightCache;
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * inspectContainerCmd / listContainersCmd 앞단의 read-through 캐시
+ * 동시 요청은 하나의 Docker API 호출로 합치고, 컨테이너 이벤트가 오면 해당 항목만 무효화
+ */
+@Service
+@Slf4j
+public class DockerApiCache implements MetricsSource {
+
+    private static final String ALL_CONTAINERS = "all";
+
+    // inspect 결과를 바꾸지 않는 이벤트
+    private static final Set<String> READ_ONLY_EVENTS = Set.of(
+            "exec_create", "exec_start", "exec_detach", "exec_die",
+            "attach", "detach", "top", "resize", "export", "commit",
+            "copy", "archive-path", "extract-to-dir"
+    );
+
+    private final DockerClient dockerClient;
+    private final SingleFlightCache<String, InspectContainerResponse> inspectCache;
+    private final SingleFlightCache<String, List<Container>> listCache;
+
+    public DockerApiCache(
+            DockerClient dockerClient,
+            @Value("${monitoring.docker-cache.ttl-ms:2000}") long ttlMillis) {
+        this.dockerClient = dockerClient;
+        this.inspectCache = new SingleFlightCache<>(ttlMillis);
+        this.listCache = new SingleFlightCache<>(ttlMillis);
+    }
+
+    /**
+     * 이름 또는 ID로 inspect (Docker API는 둘 다 허용)
+     */
+    public InspectContainerResponse inspectContainer(String containerNameOrId) {
+        return inspectCache.get(containerNameOrId, key -> dockerClient.inspectContainerCmd(key).exec());
+    }
+
+    /**
+     * 중지된 컨테이너를 포함한 전체 목록
+     */
+    public List<Container> listContainers() {
+        return listCache.get(ALL_CONTAINERS, key -> dockerClient.listContainersCmd()
+                .withShowAll(true)
+                .exec());
+    }
+
+    public void invalidate(String containerName, String containerId, String eventType) {
+        if (eventType != null) {
+            int colon = eventType.indexOf(':');
+            String action = colon > 0 ? eventType.substring(0, colon) : eventType;
+            if (READ_ONLY_EVENTS.contains(action)) {
+                return;
+            }
+        }
+
+        if (containerName != null) {
+            inspectCache.invalidate(containerName);
+        }
+        if (containerId != null) {
+            inspectCache.invalidate(containerId);
+        }
+        listCache.invalidate(ALL_CONTAINERS);
+        log.debug("Invalidated Docker API cache for {} ({})", containerName, eventType);
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        writer.counter("docker_api_cache_requests", "Docker API cache lookups by result");
+        writeRequests(writer, "inspect", inspectCache);
+        writeRequests(writer, "list", listCache);
+
+        writer.counter("docker_api_cache_invalidations", "Docker API cache invalidations triggered by events");
+        writer.sample("docker_api_cache_invalidations_total").label("cache", "inspect").value(inspectCache.getInvalidations());
+        writer.sample("docker_api_cache_invalidations_total").label("cache", "list").value(listCache.getInvalidations());
+    }
+
+    private void writeRequests(OpenMetricsWriter writer, String cache, SingleFlightCache<?, ?> source) {
+        writer.sample("docker_api_cache_requests_total").label("cache", cache).label("result", "hit").value(source.getHits());
+        writer.sample("docker_api_cache_requests_total").label("cache", cache).label("result", "miss").value(source.getMisses());
+        writer.sample("docker_api_cache_requests_total").label("cache", cache).label("result", "coalesced").value(source.getCoalesced());
+    }
+}
@@ -5,6 +5,8 @@ import com.github.dockerjava.api.async.ResultCallback;
 import com.github.dockerjava.api.model.Event;
 import com.github.dockerjava.api.model.EventType;
 import com.monitoring.config.DockerProperties;
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
 import com.monitoring.model.DockerEventMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,51 +16,73 @@ import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class DockerEventService {
+public class DockerEventService implements MetricsSource {
 
     private final DockerClient dockerClient;
     private final WebSocketService webSocketService;
     private final ContainerStatusService containerStatusService;
     private final DockerProperties dockerProperties;
+    private final CgroupStatsService cgroupStatsService;
+    private final FlapDetectionService flapDetectionService;
+    private final DockerApiCache dockerApiCache;
+    private final ClusterService clusterService;
+    private final DeploymentAnalysisService deploymentAnalysisService;
 
     @Value("${docker.target-containers}")
     private List<String> targetContainers;
 
     private ResultCallback.Adapter<Event> eventCallback;
 
+    // 컨테이너별 이벤트 카운터 (container -> event -> count)
+    private final Map<String, Map<String, LongAdder>> eventCounts = new ConcurrentHashMap<>();
+
+    // 재시작 카운터: 한 번 이상 시작된 컨테이너가 다시 start되면 증가
+    private final Map<String, LongAdder> restartCounts = new ConcurrentHashMap<>();
+    private final Set<String> startedContainers = ConcurrentHashMap.newKeySet();
+
     @PostConstruct
     public void startListening() {
-        log.info("Starting Docker events listener");
+        if (!clusterService.isDockerOwner()) {
+            log.info("Docker events are received from cluster peers on this node");
+            return;
+        }
 
-        try {
-            // Docker 연결 테스트
-            dockerClient.pingCmd().exec();
+        log.info("Starting Docker events listener");
 
-            new Thread(() -> {
-                try {
-                    eventCallback = new EventCallback();
+        // 연결 확인도 리스너 스레드에서 수행 (Docker 응답이 느려도 컨텍스트 시작을 막지 않음)
+        new Thread(() -> {
+            try {
+                // Docker 연결 테스트
+                dockerClient.pingCmd().exec();
+            } catch (Exception e) {
+                log.warn("Docker not available (local development mode): {}", e.getMessage());
+                return;
+            }
 
-                    dockerClient.eventsCmd()
-                            .withEventTypeFilter(EventType.CONTAINER, EventType.IMAGE)
-                            .exec(eventCallback)
-                            .awaitCompletion();
+            try {
+                eventCallback = new EventCallback();
 
-                } catch (InterruptedException e) {
-                    log.warn("Docker events listening interrupted", e);
-                    Thread.currentThread().interrupt();
-                } catch (Exception e) {
-                    log.error("Docker events listening failed", e);
-                }
-            }, "docker-events-listener").start();
+                log.info("Docker events listener started successfully");
+                dockerClient.eventsCmd()
+                        .withEventTypeFilter(EventType.CONTAINER, EventType.IMAGE)
+                        .exec(eventCallback)
+                        .awaitCompletion();
 
-            log.info("Docker events listener started successfully");
-        } catch (Exception e) {
-            log.warn("Docker not available (local development mode): {}", e.getMessage());
-        }
+            } catch (InterruptedException e) {
+                log.warn("Docker events listening interrupted", e);
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Docker events listening failed", e);
+            }
+        }, "docker-events-listener").start();
     }
 
     @PreDestroy
@@ -108,21 +132,126 @@ public class DockerEventService {
 
         log.info("Docker Event: {} - {} (action: {})", containerName, status, action);
 
+        countEvent(containerName, status);
+
+        // 상태가 바뀌었으므로 캐시된 inspect/list 결과 무효화
+        dockerApiCache.invalidate(containerName, event.getActor() != null ? event.getActor().getId() : null, status);
+
+        // cgroup 모드: 이벤트의 컨테이너 ID로 cgroup 디렉토리 추적
+        trackCgroup(event, containerName, status);
+
+        // 재시작 반복 및 이벤트 폭주 제한
+        switch (flapDetectionService.onEvent(containerName, status)) {
+            case FLAPPING_STARTED:
+                containerStatusService.markFlapping(containerName, flapDetectionService.getSummary(containerName));
+                analyzeEvent(event, containerName, "flapping");
+                broadcastEvent(event, containerName, "flapping",
+                        String.format("%s: restart loop detected, suppressing events", containerName));
+                return;
+            case SUPPRESS:
+                return;
+            case THROTTLE:
+                containerStatusService.updateStatus(containerName, status, false);
+                analyzeEvent(event, containerName, status);
+                return;
+            default:
+                break;
+        }
+
         // 컨테이너 상태 업데이트
         containerStatusService.updateStatus(containerName, status);
+        analyzeEvent(event, containerName, status);
 
         // WebSocket으로 이벤트 브로드캐스트
+        broadcastEvent(event, containerName, status, String.format("%s: %s", containerName, status));
+    }
+
+    /**
+     * 배포 분석용 시각 기록 (Actor 속성에 compose 라벨이 포함됨)
+     */
+    private void analyzeEvent(Event event, String containerName, String eventType) {
+        Map<String, String> attributes = event.getActor() != null ? event.getActor().getAttributes() : null;
+        // 데몬 시각을 우선 사용 (배포 분석은 데몬 시계 하나로 계산)
+        long time = event.getTimeNano() != null ? event.getTimeNano() / 1_000_000
+                : event.getTime() != null ? event.getTime() * 1000 : System.currentTimeMillis();
+        deploymentAnalysisService.onEvent(containerName, eventType, attributes, time);
+    }
+
+    private void broadcastEvent(Event event, String containerName, String eventType, String text) {
         DockerEventMessage message = DockerEventMessage.builder()
                 .type("docker_event")
                 .containerName(containerName)
-                .eventType(status)
+                .eventType(eventType)
                 .timestamp(event.getTime())
-                .message(String.format("%s: %s", containerName, status))
+                .message(text)
                 .build();
 
         webSocketService.broadcast("docker_event", message);
     }
 
+    private void countEvent(String containerName, String status) {
+        if (status == null) {
+            return;
+        }
+
+        // "health_status: healthy", "exec_start: sh -c ..." 등은 콜론 앞부분만 사용 (라벨 카디널리티 제한)
+        int colon = status.indexOf(':');
+        String eventType = colon > 0 ? status.substring(0, colon) : status;
+
+        eventCounts.computeIfAbsent(containerName, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(eventType, k -> new LongAdder())
+                .increment();
+
+        if ("start".equals(eventType) && !startedContainers.add(containerName)) {
+            LongAdder restarts = restartCounts.computeIfAbsent(containerName, k -> new LongAdder());
+            restarts.increment();
+            // 조회 API와 클러스터 복제 상태도 같은 값을 사용
+            containerStatusService.setRestarts(containerName, restarts.sum());
+        }
+    }
+
+    /**
+     * 모니터 시작 전에 이미 시작된 적 있는 컨테이너 (탐색 시 호출). 이후 첫 start부터 재시작으로 셈
+     */
+    public void markStarted(String containerName) {
+        startedContainers.add(containerName);
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        writer.counter("docker_events", "Docker events received per container and event type");
+        eventCounts.forEach((containerName, counts) ->
+                counts.forEach((eventType, count) ->
+                        writer.sample("docker_events_total")
+                                .label("container", containerName)
+                                .label("event", eventType)
+                                .value(count.sum())));
+
+        writer.counter("container_restarts", "Container starts observed after its first start");
+        restartCounts.forEach((containerName, count) ->
+                writer.sample("container_restarts_total").label("container", containerName).value(count.sum()));
+    }
+
+    private void trackCgroup(Event event, String containerName, String status) {
+        if (!cgroupStatsService.isEnabled() || status == null) {
+            return;
+        }
+
+        switch (status) {
+            case "create":
+            case "start":
+                if (event.getActor() != null) {
+                    cgroupStatsService.track(containerName, event.getActor().getId());
+                }
+                break;
+            case "destroy":
+                cgroupStatsService.untrack(containerName);
+                break;
+            default:
+                break;
+        }
+    }
+
     private String extractContainerName(Event event) {
         if (event.getActor() == null || event.getActor().getAttributes() == null) {
             return null;
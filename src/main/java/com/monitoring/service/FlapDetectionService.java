@@ -0,0 +1,229 @@
+package com.monitoring.service;
+
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
+import com.monitoring.model.DockerEventMessage;
+import com.monitoring.model.FlapSummary;
+import com.monitoring.ratelimit.TokenBucket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 재시작 반복(flapping) 감지 및 컨테이너별 이벤트 브로드캐스트 제한
+ *
+ * - 윈도우 내 die 이벤트가 임계값 이상이면 flapping 상태로 묶어서 한 번만 브로드캐스트
+ * - flapping이 아니어도 컨테이너별 토큰 버킷을 넘는 이벤트는 브로드캐스트하지 않고 최신 상태만 나중에 전송
+ * - settle 시간 동안 이벤트가 없으면 자동으로 원래 상태 추적으로 복귀
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FlapDetectionService implements MetricsSource {
+
+    public enum Decision {
+        PASS,               // 정상 처리 및 브로드캐스트
+        THROTTLE,           // 상태만 갱신, 브로드캐스트는 나중에
+        SUPPRESS,           // flapping 중 - 상태 갱신 및 브로드캐스트 생략
+        FLAPPING_STARTED    // flapping 상태로 전환
+    }
+
+    private final ContainerStatusService containerStatusService;
+    private final WebSocketService webSocketService;
+
+    @Value("${monitoring.flap.window-ms:120000}")
+    private long windowMs;
+
+    @Value("${monitoring.flap.threshold:4}")
+    private int threshold;
+
+    @Value("${monitoring.flap.settle-ms:60000}")
+    private long settleMs;
+
+    @Value("${monitoring.flap.broadcast-burst:5}")
+    private double broadcastBurst;
+
+    @Value("${monitoring.flap.broadcast-per-second:1}")
+    private double broadcastPerSecond;
+
+    private final Map<String, FlapState> states = new ConcurrentHashMap<>();
+
+    public Decision onEvent(String containerName, String eventType) {
+        long now = System.currentTimeMillis();
+        FlapState state = states.computeIfAbsent(containerName,
+                k -> new FlapState(new TokenBucket(broadcastBurst, broadcastPerSecond)));
+
+        synchronized (state) {
+            state.lastEventMillis = now;
+            state.lastEventType = eventType;
+
+            if ("die".equals(eventType)) {
+                state.dieTimes.addLast(now);
+                if (state.flapping) {
+                    state.cycles++;
+                }
+            }
+            while (!state.dieTimes.isEmpty() && now - state.dieTimes.peekFirst() > windowMs) {
+                state.dieTimes.pollFirst();
+            }
+
+            if (state.flapping) {
+                state.suppressed++;
+                state.dirty = true;
+                return Decision.SUPPRESS;
+            }
+
+            if (state.dieTimes.size() >= threshold) {
+                state.flapping = true;
+                state.since = now;
+                state.cycles = state.dieTimes.size();
+                state.suppressed = 0;
+                state.dirty = false;
+                log.warn("Container {} is flapping: {} restarts within {}s", containerName, state.cycles, windowMs / 1000);
+                return Decision.FLAPPING_STARTED;
+            }
+
+            if (state.bucket.tryAcquire()) {
+                state.dirty = false;
+                return Decision.PASS;
+            }
+
+            state.throttled++;
+            state.dirty = true;
+            return Decision.THROTTLE;
+        }
+    }
+
+    public FlapSummary getSummary(String containerName) {
+        FlapState state = states.get(containerName);
+        if (state == null) {
+            return null;
+        }
+        synchronized (state) {
+            return state.flapping ? summarize(state) : null;
+        }
+    }
+
+    /**
+     * flapping 종료 확인 및 밀린 상태 전송
+     */
+    @Scheduled(fixedDelayString = "${monitoring.flap.check-interval-ms:1000}")
+    public void flushPending() {
+        long now = System.currentTimeMillis();
+
+        states.forEach((containerName, state) -> {
+            String recoveredEvent = null;
+            FlapSummary summary = null;
+            boolean flushStatus = false;
+
+            synchronized (state) {
+                if (state.flapping && now - state.lastEventMillis >= settleMs) {
+                    // 안정화 - 원래 상태 추적으로 복귀
+                    log.info("Container {} settled after {} flap cycles", containerName, state.cycles);
+                    summary = summarize(state);
+                    recoveredEvent = state.lastEventType;
+                    state.flapping = false;
+                    state.dirty = false;
+                    state.dieTimes.clear();
+                    state.pastCycles += state.cycles;
+                    state.pastSuppressed += state.suppressed;
+                } else if (state.dirty && state.bucket.tryAcquire()) {
+                    state.dirty = false;
+                    if (state.flapping) {
+                        summary = summarize(state);
+                    } else {
+                        flushStatus = true;
+                    }
+                }
+            }
+
+            if (recoveredEvent != null) {
+                containerStatusService.updateStatus(containerName, recoveredEvent);
+                broadcastEvent(containerName, "flap_recovered", String.format(
+                        "%s: stopped flapping after %d restarts (%d events suppressed)",
+                        containerName, summary.getCycles(), summary.getSuppressedEvents()));
+            } else if (summary != null) {
+                containerStatusService.markFlapping(containerName, summary);
+            } else if (flushStatus) {
+                containerStatusService.broadcastStatus(containerName);
+            }
+        });
+    }
+
+    private FlapSummary summarize(FlapState state) {
+        return FlapSummary.builder()
+                .since(state.since)
+                .cycles(state.cycles)
+                .suppressedEvents(state.suppressed)
+                .restartsPerMinute(state.dieTimes.size() * 60_000.0 / windowMs)
+                .lastEvent(state.lastEventType)
+                .build();
+    }
+
+    private void broadcastEvent(String containerName, String eventType, String message) {
+        webSocketService.broadcast("docker_event", DockerEventMessage.builder()
+                .type("docker_event")
+                .containerName(containerName)
+                .eventType(eventType)
+                .timestamp(System.currentTimeMillis() / 1000)
+                .message(message)
+                .build());
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        writer.gauge("container_flapping", "1 while the container is in a restart loop");
+        states.forEach((name, state) ->
+                writer.sample("container_flapping").label("container", name).value(state.flapping ? 1 : 0));
+
+        writer.counter("container_flap_cycles", "Restarts observed while flapping");
+        states.forEach((name, state) ->
+                writer.sample("container_flap_cycles_total").label("container", name).value(state.totalCycles()));
+
+        writer.counter("docker_events_suppressed", "Docker events not broadcast because of flapping or rate limits");
+        states.forEach((name, state) -> {
+            writer.sample("docker_events_suppressed_total")
+                    .label("container", name).label("reason", "flapping").value(state.totalSuppressed());
+            writer.sample("docker_events_suppressed_total")
+                    .label("container", name).label("reason", "rate_limited").value(state.throttled);
+        });
+    }
+
+    private static class FlapState {
+
+        private final TokenBucket bucket;
+        private final Deque<Long> dieTimes = new ArrayDeque<>();
+
+        private volatile boolean flapping;
+        private long since;
+        private int cycles;
+        private long suppressed;
+        private volatile long throttled;
+        private boolean dirty;
+        private long lastEventMillis;
+        private String lastEventType;
+
+        // 이전 flapping 구간의 누적값 (메트릭은 단조 증가해야 함)
+        private long pastCycles;
+        private long pastSuppressed;
+
+        FlapState(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+
+        synchronized long totalCycles() {
+            return pastCycles + (flapping ? cycles : 0);
+        }
+
+        synchronized long totalSuppressed() {
+            return pastSuppressed + (flapping ? suppressed : 0);
+        }
+    }
+}
@@ -1,71 +1,293 @@
 package com.monitoring.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
 import com.monitoring.model.WebSocketMessage;
+import com.monitoring.websocket.BinaryMessageEncoder;
+import com.monitoring.websocket.MessageEncoding;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class WebSocketService {
+public class WebSocketService implements MetricsSource {
 
-    private final Set<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
+    // 세션 ID -> 전송용 세션 (여러 스레드가 동시에 보내도 되도록 ConcurrentWebSocketSessionDecorator로 감쌈)
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BinaryMessageEncoder binaryEncoder = new BinaryMessageEncoder(objectMapper);
     private final ContainerStatusService containerStatusService;
+    private final ContainerDiscoveryService containerDiscoveryService;
+    private final ClusterService clusterService;
+    private final AdmissionControlService admissionControlService;
+
+    // 느린 클라이언트: 한 번의 전송이 이 시간을 넘기거나 밀린 메시지가 이 크기를 넘으면 세션을 닫음
+    @Value("${monitoring.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${monitoring.websocket.buffer-size-limit:524288}")
+    private int bufferSizeLimit;
+
+    // 세션별로 클라이언트 화면에 보이는 컨테이너 (적응형 샘플링에 사용)
+    private final Map<String, Set<String>> viewedContainers = new ConcurrentHashMap<>();
+
+    private final LongAdder broadcastCount = new LongAdder();
+    private final LongAdder slowSessionsClosed = new LongAdder();
+    private final Map<MessageEncoding, EncodingStats> encodingStats = new EnumMap<>(Map.of(
+            MessageEncoding.JSON, new EncodingStats(),
+            MessageEncoding.BINARY, new EncodingStats()
+    ));
+
+    // 초기 상태 직렬화 결과 캐시 (재연결 폭주 시 세션마다 전체 상태를 다시 직렬화하지 않음)
+    // 브로드캐스트가 일어나면 generation이 바뀌어 무효화됨
+    private static final long INITIAL_STATUS_MAX_AGE_MS = 1000;
+    private final AtomicLong stateGeneration = new AtomicLong();
+    private final Map<MessageEncoding, EncodedSnapshot> initialStatusCache = new ConcurrentHashMap<>();
+    private final LongAdder initialStatusCacheHits = new LongAdder();
+    private final LongAdder initialStatusCacheMisses = new LongAdder();
 
     public void addSession(WebSocketSession session) {
-        sessions.add(session);
+        sessions.put(session.getId(), new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, bufferSizeLimit));
         log.info("WebSocket session added: {}, total sessions: {}", session.getId(), sessions.size());
     }
 
     public void removeSession(WebSocketSession session) {
-        sessions.remove(session);
+        sessions.remove(session.getId());
+        viewedContainers.remove(session.getId());
         log.info("WebSocket session removed: {}, total sessions: {}", session.getId(), sessions.size());
     }
 
-    public void sendInitialStatus(WebSocketSession session) {
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * 닫힌 뒤에 처리된 view 메시지가 항목을 다시 만들지 않도록 등록 후 세션이 남아 있는지 다시 확인
+     */
+    public void setViewedContainers(WebSocketSession session, Collection<String> containerNames) {
+        String id = session.getId();
+        if (containerNames.isEmpty()) {
+            viewedContainers.remove(id);
+        } else {
+            viewedContainers.put(id, Set.copyOf(containerNames));
+        }
+        if (!sessions.containsKey(id)) {
+            viewedContainers.remove(id);
+            return;
+        }
+        log.debug("Session {} is viewing {}", id, containerNames);
+    }
+
+    /**
+     * 이 노드의 세션들이 보고 있는 컨테이너 전체 (클러스터 모드에서 다른 노드에 전달)
+     */
+    public Set<String> getViewedContainers() {
+        Set<String> all = new HashSet<>();
+        viewedContainers.values().forEach(all::addAll);
+        return all;
+    }
+
+    /**
+     * 어느 세션이든 해당 컨테이너를 보고 있으면 true
+     */
+    public boolean isViewed(String containerName) {
+        for (Set<String> viewed : viewedContainers.values()) {
+            if (viewed.contains(containerName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 핸들러가 넘겨준 세션 대신 등록된 전송용 세션 사용
+     */
+    private WebSocketSession sendable(WebSocketSession session) {
+        return sessions.getOrDefault(session.getId(), session);
+    }
+
+    public void sendInitialStatus(WebSocketSession rawSession) {
+        WebSocketSession session = sendable(rawSession);
         try {
-            WebSocketMessage message = WebSocketMessage.of(
-                    "initial_status",
-                    containerStatusService.getAllStatus()
-            );
+            MessageEncoding encoding = MessageEncoding.of(session);
+            sendPayload(session, encoding, initialStatusPayload(encoding));
 
-            String json = objectMapper.writeValueAsString(message);
-            session.sendMessage(new TextMessage(json));
+            // 시작 탐색이 끝나지 않았으면 warming 상태 알림 (완료 시 전체 상태를 다시 전송)
+            if (containerDiscoveryService.isWarming()) {
+                WebSocketMessage warming = WebSocketMessage.of(
+                        "monitor_state",
+                        containerDiscoveryService.getDiscoveryStatus()
+                );
+                sendEncoded(session, warming);
+            }
             log.debug("Initial status sent to session: {}", session.getId());
+        } catch (SessionLimitExceededException e) {
+            closeSlowSession(session, e);
         } catch (Exception e) {
             log.error("Failed to send initial status to session: {}", session.getId(), e);
         }
     }
 
+    /**
+     * 한 세션에만 전송 (쿼리 구독 결과 등)
+     */
+    public void send(WebSocketSession rawSession, String type, Object data) {
+        WebSocketSession session = sendable(rawSession);
+        try {
+            if (session.isOpen()) {
+                sendEncoded(session, WebSocketMessage.of(type, data));
+            }
+        } catch (SessionLimitExceededException e) {
+            closeSlowSession(session, e);
+        } catch (Exception e) {
+            log.error("Failed to send message to session: {}", session.getId(), e);
+        }
+    }
+
+    /**
+     * 마지막 브로드캐스트 이후 같은 인코딩으로 직렬화한 초기 상태가 있으면 재사용
+     */
+    private Object initialStatusPayload(MessageEncoding encoding) {
+        long generation = stateGeneration.get();
+        long now = System.currentTimeMillis();
+
+        EncodedSnapshot cached = initialStatusCache.get(encoding);
+        if (cached != null && cached.generation == generation && now - cached.createdAt < INITIAL_STATUS_MAX_AGE_MS) {
+            initialStatusCacheHits.increment();
+            return cached.payload;
+        }
+
+        initialStatusCacheMisses.increment();
+        WebSocketMessage message = WebSocketMessage.of("initial_status", containerStatusService.getAllStatus());
+        Object payload = encoding == MessageEncoding.BINARY ? encodeBinary(message) : encodeJson(message);
+        initialStatusCache.put(encoding, new EncodedSnapshot(generation, now, payload));
+        return payload;
+    }
+
+    private void sendEncoded(WebSocketSession session, WebSocketMessage message) throws Exception {
+        MessageEncoding encoding = MessageEncoding.of(session);
+        sendPayload(session, encoding, encoding == MessageEncoding.BINARY ? encodeBinary(message) : encodeJson(message));
+    }
+
+    private void sendPayload(WebSocketSession session, MessageEncoding encoding, Object payload) throws Exception {
+        if (payload instanceof byte[] binary) {
+            session.sendMessage(new BinaryMessage(binary));
+            encodingStats.get(encoding).sentBytes.add(binary.length);
+        } else {
+            String json = (String) payload;
+            session.sendMessage(new TextMessage(json));
+            encodingStats.get(encoding).sentBytes.add(json.length());
+        }
+    }
+
     public void broadcast(String type, Object data) {
         WebSocketMessage message = WebSocketMessage.of(type, data);
         broadcast(message);
     }
 
     public void broadcast(WebSocketMessage message) {
-        String json = toJson(message);
+        // 클러스터 모드: 다른 노드의 클라이언트에도 전달
+        clusterService.publish(message);
+        broadcastLocal(message);
+    }
+
+    /**
+     * 이 노드에 연결된 세션에만 전송 (다른 노드에서 받은 메시지)
+     */
+    public void broadcastLocal(WebSocketMessage message) {
+        stateGeneration.incrementAndGet();
 
-        sessions.forEach(session -> {
+        // 연결된 세션이 없으면 직렬화 생략
+        if (sessions.isEmpty()) {
+            return;
+        }
+
+        broadcastCount.increment();
+
+        // 인코딩별로 한 번만 직렬화하고 모든 세션이 결과를 공유
+        TextMessage textMessage = null;
+        byte[] binary = null;
+
+        for (WebSocketSession session : sessions.values()) {
             try {
-                if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(json));
+                if (!session.isOpen()) {
+                    continue;
                 }
+
+                MessageEncoding encoding = MessageEncoding.of(session);
+                if (encoding == MessageEncoding.BINARY) {
+                    if (binary == null) {
+                        binary = encodeBinary(message);
+                    }
+                    // BinaryMessage의 ByteBuffer는 전송 시 position이 바뀌므로 세션마다 감싸기만 함 (복사 없음)
+                    session.sendMessage(new BinaryMessage(binary));
+                    encodingStats.get(encoding).sentBytes.add(binary.length);
+                } else {
+                    if (textMessage == null) {
+                        textMessage = new TextMessage(encodeJson(message));
+                    }
+                    session.sendMessage(textMessage);
+                    encodingStats.get(encoding).sentBytes.add(textMessage.getPayload().length());
+                }
+            } catch (SessionLimitExceededException e) {
+                closeSlowSession(session, e);
             } catch (Exception e) {
                 log.error("Failed to send message to session: {}", session.getId(), e);
             }
-        });
+        }
 
         log.debug("Broadcasted message to {} sessions: {}", sessions.size(), message.getType());
     }
 
+    /**
+     * 전송 시간/버퍼 상한을 넘긴 세션은 닫음 (클라이언트가 재연결하면 초기 상태부터 다시 받음)
+     */
+    private void closeSlowSession(WebSocketSession session, SessionLimitExceededException e) {
+        slowSessionsClosed.increment();
+        log.warn("Closing slow WebSocket session {}: {}", session.getId(), e.getMessage());
+        try {
+            session.close(e.getStatus());
+        } catch (Exception closeError) {
+            log.debug("Failed to close session {}: {}", session.getId(), closeError.getMessage());
+        }
+    }
+
+    private String encodeJson(WebSocketMessage message) {
+        long start = System.nanoTime();
+        String json = toJson(message);
+        encodingStats.get(MessageEncoding.JSON).record(json.length(), System.nanoTime() - start);
+        return json;
+    }
+
+    private byte[] encodeBinary(WebSocketMessage message) {
+        long start = System.nanoTime();
+        byte[] binary = binaryEncoder.encode(message);
+        encodingStats.get(MessageEncoding.BINARY).record(binary.length, System.nanoTime() - start);
+        return binary;
+    }
+
     private String toJson(Object obj) {
         try {
             return objectMapper.writeValueAsString(obj);
@@ -74,4 +296,107 @@ public class WebSocketService {
             return "{}";
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 종료 시 모든 세션을 닫으면서 세션마다 다른 재연결 대기 시간 전달 ("retry=<ms>")
+     * 재시작 직후 대시보드들이 한꺼번에 재연결하지 않도록 분산
+     * 내장 웹 서버는 lifecycle 종료 단계에서 먼저 멈추므로 @PreDestroy가 아니라 그 전에 발행되는 ContextClosedEvent에서 닫음
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        for (WebSocketSession session : sessions.values()) {
+            try {
+                if (session.isOpen()) {
+                    long retryMs = admissionControlService.reconnectHintMillis();
+                    session.close(CloseStatus.SERVICE_RESTARTED.withReason("retry=" + retryMs));
+                }
+            } catch (Exception e) {
+                log.debug("Failed to close session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 현재 전체 상태를 두 인코딩으로 직렬화해 크기와 시간 비교
+     */
+    public Map<String, Object> compareEncodings() {
+        WebSocketMessage message = WebSocketMessage.of("initial_status", containerStatusService.getAllStatus());
+
+        long start = System.nanoTime();
+        int jsonBytes = toJson(message).getBytes(StandardCharsets.UTF_8).length;
+        long jsonNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int binaryBytes = binaryEncoder.encode(message).length;
+        long binaryNanos = System.nanoTime() - start;
+
+        return Map.of(
+                "jsonBytes", jsonBytes,
+                "binaryBytes", binaryBytes,
+                "jsonMicros", jsonNanos / 1000,
+                "binaryMicros", binaryNanos / 1000
+        );
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        writer.gauge("websocket_sessions", "Connected dashboard WebSocket sessions");
+        writer.sample("websocket_sessions").value(sessions.size());
+
+        writer.gauge("websocket_viewing_sessions", "Sessions with a visible container list for adaptive sampling");
+        writer.sample("websocket_viewing_sessions").value(viewedContainers.size());
+
+        writer.counter("websocket_broadcasts", "Messages broadcast to all sessions");
+        writer.sample("websocket_broadcasts_total").value(broadcastCount.sum());
+
+        writer.counter("websocket_slow_sessions_closed", "Sessions closed for exceeding the send time or buffer size limit");
+        writer.sample("websocket_slow_sessions_closed_total").value(slowSessionsClosed.sum());
+
+        writer.counter("websocket_initial_status", "Initial status sends by whether the serialized snapshot was reused");
+        writer.sample("websocket_initial_status_total").label("result", "cached").value(initialStatusCacheHits.sum());
+        writer.sample("websocket_initial_status_total").label("result", "encoded").value(initialStatusCacheMisses.sum());
+
+        writer.counter("websocket_messages_encoded", "Messages serialized per encoding (once per broadcast, shared by sessions)");
+        encodingStats.forEach((encoding, stats) ->
+                writer.sample("websocket_messages_encoded_total").label("encoding", encoding.name().toLowerCase()).value(stats.messages.sum()));
+
+        writer.counter("websocket_encoded_bytes", "Serialized message size per encoding (JSON counted in characters)");
+        encodingStats.forEach((encoding, stats) ->
+                writer.sample("websocket_encoded_bytes_total").label("encoding", encoding.name().toLowerCase()).value(stats.bytes.sum()));
+
+        writer.counter("websocket_encode_seconds", "CPU wall time spent serializing messages per encoding");
+        encodingStats.forEach((encoding, stats) ->
+                writer.sample("websocket_encode_seconds_total").label("encoding", encoding.name().toLowerCase()).value(stats.nanos.sum() / 1e9));
+
+        writer.counter("websocket_sent_bytes", "Payload size handed to sessions per encoding, before permessage-deflate (JSON counted in characters)");
+        encodingStats.forEach((encoding, stats) ->
+                writer.sample("websocket_sent_bytes_total").label("encoding", encoding.name().toLowerCase()).value(stats.sentBytes.sum()));
+    }
+
+    private static class EncodedSnapshot {
+
+        private final long generation;
+        private final long createdAt;
+        private final Object payload;      // String (JSON) 또는 byte[] (binary)
+
+        EncodedSnapshot(long generation, long createdAt, Object payload) {
+            this.generation = generation;
+            this.createdAt = createdAt;
+            this.payload = payload;
+        }
+    }
+
+    private static class EncodingStats {
+
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder sentBytes = new LongAdder();
+
+        void record(int size, long elapsedNanos) {
+            messages.increment();
+            bytes.add(size);
+            nanos.add(elapsedNanos);
+        }
+    }
+}
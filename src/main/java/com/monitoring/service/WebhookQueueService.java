@@ -0,0 +1,179 @@
+package com.monitoring.service;
+
+import com.monitoring.metrics.MetricsSource;
+import com.monitoring.metrics.OpenMetricsWriter;
+import com.monitoring.ratelimit.TokenBucket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GitHub webhook을 제한된 크기의 큐에 넣고 워커 스레드에서 처리
+ * 요청 속도가 한도를 넘으면 RATE_LIMITED(429), 큐가 가득 차면 QUEUE_FULL(503)로 바로 거절
+ * 큐 자리를 먼저 확보한 뒤에 본문을 읽으므로 거절할 요청은 파싱하지 않음
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class WebhookQueueService implements MetricsSource {
+
+    public enum Result {
+        ACCEPTED,
+        RATE_LIMITED,
+        QUEUE_FULL,
+        INVALID_PAYLOAD
+    }
+
+    /**
+     * 자리를 확보한 뒤에 호출되는 본문 파서
+     */
+    @FunctionalInterface
+    public interface PayloadReader {
+        Map<String, Object> read() throws IOException;
+    }
+
+    private final GithubWebhookService githubWebhookService;
+
+    @Value("${monitoring.webhook.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${monitoring.webhook.workers:2}")
+    private int workers;
+
+    @Value("${monitoring.webhook.burst:50}")
+    private double burst;
+
+    @Value("${monitoring.webhook.rate-per-second:20}")
+    private double ratePerSecond;
+
+    private ThreadPoolExecutor executor;
+    private TokenBucket rateLimiter;
+
+    // 워커를 기다리는 자리. 요청을 수락할 때 확보하고 워커가 꺼내 갈 때 반납
+    private Semaphore queueSlots;
+
+    private final Map<Result, LongAdder> submitCounts = new ConcurrentHashMap<>();
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        rateLimiter = new TokenBucket(burst, ratePerSecond);
+        queueSlots = new Semaphore(queueCapacity);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "webhook-worker-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        for (Result result : Result.values()) {
+            submitCounts.put(result, new LongAdder());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 속도 제한과 큐 자리를 확인한 뒤에만 payloadReader로 본문을 읽어 큐에 넣음
+     */
+    public Result submit(String event, PayloadReader payloadReader) {
+        Result result = enqueue(event, payloadReader);
+        submitCounts.get(result).increment();
+        if (result == Result.RATE_LIMITED || result == Result.QUEUE_FULL) {
+            log.warn("GitHub webhook shed: event={}, reason={}, queued={}", event, result, executor.getQueue().size());
+        }
+        return result;
+    }
+
+    private Result enqueue(String event, PayloadReader payloadReader) {
+        if (!rateLimiter.tryAcquire()) {
+            return Result.RATE_LIMITED;
+        }
+        if (!queueSlots.tryAcquire()) {
+            return Result.QUEUE_FULL;
+        }
+
+        Map<String, Object> payload;
+        try {
+            payload = payloadReader.read();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Invalid GitHub webhook payload: event={}, error={}", event, e.getMessage());
+            payload = null;
+        }
+        if (payload == null) {
+            queueSlots.release();
+            return Result.INVALID_PAYLOAD;
+        }
+
+        Map<String, Object> queued = payload;
+        try {
+            executor.execute(() -> {
+                queueSlots.release();
+                process(event, queued);
+            });
+            return Result.ACCEPTED;
+        } catch (RejectedExecutionException e) {
+            queueSlots.release();
+            return Result.QUEUE_FULL;
+        }
+    }
+
+    private void process(String event, Map<String, Object> payload) {
+        try {
+            switch (event) {
+                case "push":
+                    githubWebhookService.handlePushEvent(payload);
+                    break;
+                case "workflow_run":
+                    githubWebhookService.handleWorkflowEvent(payload);
+                    break;
+                default:
+                    log.info("Unhandled GitHub event type: {}", event);
+            }
+            processedCount.increment();
+        } catch (Exception e) {
+            failedCount.increment();
+            log.error("Failed to process GitHub webhook: {}", event, e);
+        }
+    }
+
+    @Override
+    public void writeMetrics(OpenMetricsWriter writer) {
+        writer.counter("webhook_requests", "GitHub webhook requests by admission result");
+        submitCounts.forEach((result, count) ->
+                writer.sample("webhook_requests_total").label("result", result.name().toLowerCase()).value(count.sum()));
+
+        writer.counter("webhook_processed", "Queued GitHub webhooks processed by workers");
+        writer.sample("webhook_processed_total").label("result", "success").value(processedCount.sum());
+        writer.sample("webhook_processed_total").label("result", "error").value(failedCount.sum());
+
+        writer.gauge("webhook_queue_depth", "GitHub webhooks waiting for a worker");
+        writer.sample("webhook_queue_depth").value(executor.getQueue().size());
+
+        writer.gauge("webhook_queue_capacity", "Maximum queued GitHub webhooks before shedding");
+        writer.sample("webhook_queue_capacity").value(queueCapacity);
+    }
+}
@@ -0,0 +1,68 @@
+package com.monitoring.websocket;
+
+import com.monitoring.service.AdmissionControlService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+/**
+ * 핸드셰이크 단계에서 연결 수 / 연결 속도 제한 적용
+ * 거절된 연결은 세션을 만들지 않으므로 초기 상태 직렬화 비용도 들지 않음
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AdmissionHandshakeInterceptor implements HandshakeInterceptor {
+
+    private final AdmissionControlService admissionControlService;
+
+    // 리버스 프록시 뒤에서 실행할 때만 true (X-Forwarded-For의 첫 번째 주소 사용)
+    @Value("${monitoring.admission.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String clientIp = clientIp(request);
+        AdmissionControlService.Decision decision = admissionControlService.admit(clientIp);
+
+        if (!decision.isAccepted()) {
+            long retryAfterSeconds = Math.max(1, admissionControlService.reconnectHintMillis() / 1000);
+            response.setStatusCode(HttpStatus.valueOf(decision.httpStatus()));
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return false;
+        }
+
+        attributes.put(AdmissionControlService.CLIENT_IP_ATTRIBUTE, clientIp);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private String clientIp(ServerHttpRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                return forwardedFor.split(",")[0].trim();
+            }
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return "unknown";
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+}
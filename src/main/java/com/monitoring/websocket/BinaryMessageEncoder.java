@@ -0,0 +1,414 @@
+package com.monitoring.websocket;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+import com.fasterxml.jackson.core.json.JsonWriteContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebSocket 메시지용 압축 바이너리 인코딩
+ * 반복되는 필드 이름을 필드 ID로 바꿔서 전송 (dashboard.js의 FIELD_NAMES와 순서가 같아야 함)
+ *
+ * message := VERSION value
+ * value   := tag payload
+ *            0 null | 1 false | 2 true | 3 int (zigzag varint) | 4 double (8 bytes, big-endian)
+ *            5 string (varint 길이 + UTF-8) | 6 object (varint 개수 + (key value)*) | 7 array (varint 개수 + value*)
+ * key     := varint 필드 ID (0이면 뒤에 varint 길이 + UTF-8 이름)
+ *
+ * Jackson 직렬화 결과를 JsonGenerator로 받아 버퍼에 바로 기록 (중간 트리나 문자열 byte[]를 만들지 않음)
+ * object/array 개수와 문자열 길이는 1바이트 자리를 먼저 잡고 끝난 뒤 채움 (128 이상이면 뒤쪽을 밀어서 varint 확장)
+ */
+public class BinaryMessageEncoder {
+
+    public static final int VERSION = 1;
+
+    public static final List<String> FIELD_NAMES = List.of(
+            "type", "data", "timestamp",
+            "containerName", "status", "phase", "progress", "lastUpdate",
+            "cpu", "memory", "uptime", "waitingFor", "flapping",
+            "since", "cycles", "suppressedEvents", "restartsPerMinute", "lastEvent",
+            "eventType", "message",
+            "branch", "commitMessage", "pusher", "workflowName", "conclusion",
+            "state", "phases"
+    );
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_FALSE = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_DOUBLE = 4;
+    private static final int TAG_STRING = 5;
+    private static final int TAG_OBJECT = 6;
+    private static final int TAG_ARRAY = 7;
+
+    private static final Map<String, Integer> FIELD_IDS = new HashMap<>();
+
+    static {
+        for (int i = 0; i < FIELD_NAMES.size(); i++) {
+            FIELD_IDS.put(FIELD_NAMES.get(i), i + 1);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final BinaryGenerator generator;
+
+    private byte[] buffer = new byte[1024];
+    private int size;
+
+    // 열려 있는 object/array: 개수를 채울 위치, 지금까지의 개수, array 여부
+    private int[] countPositions = new int[16];
+    private int[] counts = new int[16];
+    private boolean[] arrays = new boolean[16];
+    private int depth;
+
+    public BinaryMessageEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.generator = new BinaryGenerator();
+    }
+
+    public synchronized byte[] encode(Object message) {
+        size = 0;
+        depth = 0;
+        writeByte(VERSION);
+        generator.reset();
+        try {
+            objectMapper.writeValue(generator, message);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to encode message", e);
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void startContainer(int tag, boolean array) {
+        writeByte(tag);
+        if (depth == counts.length) {
+            countPositions = Arrays.copyOf(countPositions, depth * 2);
+            counts = Arrays.copyOf(counts, depth * 2);
+            arrays = Arrays.copyOf(arrays, depth * 2);
+        }
+        countPositions[depth] = size;
+        counts[depth] = 0;
+        arrays[depth] = array;
+        depth++;
+        writeByte(0);
+    }
+
+    private void endContainer() {
+        depth--;
+        fillVarint(countPositions[depth], counts[depth]);
+    }
+
+    /**
+     * array 안의 값이면 개수 증가 (object는 키에서 셈)
+     */
+    private void countValue() {
+        if (depth > 0 && arrays[depth - 1]) {
+            counts[depth - 1]++;
+        }
+    }
+
+    private void writeKey(String name) {
+        counts[depth - 1]++;
+        Integer id = FIELD_IDS.get(name);
+        if (id != null) {
+            writeVarint(id);
+        } else {
+            writeVarint(0);
+            writeString(name);
+        }
+    }
+
+    private void writeLong(long value) {
+        writeByte(TAG_INT);
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    private void writeDouble(double value) {
+        writeByte(TAG_DOUBLE);
+        long bits = Double.doubleToLongBits(value);
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (bits >>> shift);
+        }
+    }
+
+    /**
+     * UTF-8로 버퍼에 바로 인코딩한 뒤 길이를 채움 (짝이 맞지 않는 surrogate는 String.getBytes처럼 '?')
+     */
+    private void writeString(String value) {
+        int length = value.length();
+        ensureCapacity(1 + length * 3);
+        int lengthPosition = size++;
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[size++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[size++] = (byte) (0xC0 | (c >> 6));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[size++] = '?';
+            } else {
+                buffer[size++] = (byte) (0xE0 | (c >> 12));
+                buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        fillVarint(lengthPosition, size - lengthPosition - 1);
+    }
+
+    /**
+     * 1바이트로 잡아 둔 자리에 varint 기록. 더 길면 뒤쪽 내용을 밀어냄
+     */
+    private void fillVarint(int position, int value) {
+        int length = 1;
+        for (int rest = value >>> 7; rest != 0; rest >>>= 7) {
+            length++;
+        }
+        if (length > 1) {
+            ensureCapacity(length - 1);
+            System.arraycopy(buffer, position + 1, buffer, position + length, size - position - 1);
+            size += length - 1;
+        }
+
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position] = (byte) value;
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) b;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+
+    /**
+     * ObjectMapper가 값을 쓰는 대로 위 형식으로 기록. encode 사이에 재사용
+     */
+    private class BinaryGenerator extends GeneratorBase {
+
+        BinaryGenerator() {
+            super(0, objectMapper);
+        }
+
+        void reset() {
+            _writeContext = JsonWriteContext.createRootContext(null);
+        }
+
+        @Override
+        public void writeStartArray() throws IOException {
+            _verifyValueWrite("start an array");
+            _writeContext = _writeContext.createChildArrayContext(null);
+            startContainer(TAG_ARRAY, true);
+        }
+
+        @Override
+        public void writeEndArray() throws IOException {
+            if (!_writeContext.inArray()) {
+                _reportError("Current context not an Array but " + _writeContext.typeDesc());
+            }
+            _writeContext = _writeContext.clearAndGetParent();
+            endContainer();
+        }
+
+        @Override
+        public void writeStartObject() throws IOException {
+            _verifyValueWrite("start an object");
+            _writeContext = _writeContext.createChildObjectContext(null);
+            startContainer(TAG_OBJECT, false);
+        }
+
+        @Override
+        public void writeEndObject() throws IOException {
+            if (!_writeContext.inObject()) {
+                _reportError("Current context not an Object but " + _writeContext.typeDesc());
+            }
+            _writeContext = _writeContext.clearAndGetParent();
+            endContainer();
+        }
+
+        @Override
+        public void writeFieldName(String name) throws IOException {
+            if (_writeContext.writeFieldName(name) == JsonWriteContext.STATUS_EXPECT_VALUE) {
+                _reportError("Can not write a field name, expecting a value");
+            }
+            writeKey(name);
+        }
+
+        @Override
+        public void writeString(String text) throws IOException {
+            if (text == null) {
+                writeNull();
+                return;
+            }
+            _verifyValueWrite("write a string");
+            writeByte(TAG_STRING);
+            BinaryMessageEncoder.this.writeString(text);
+        }
+
+        @Override
+        public void writeString(char[] text, int offset, int len) throws IOException {
+            writeString(new String(text, offset, len));
+        }
+
+        @Override
+        public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException {
+            writeString(new String(text, offset, length, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeUTF8String(byte[] text, int offset, int length) throws IOException {
+            writeString(new String(text, offset, length, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeBinary(Base64Variant variant, byte[] data, int offset, int len) throws IOException {
+            writeString(variant.encode(Arrays.copyOfRange(data, offset, offset + len)));
+        }
+
+        @Override
+        public void writeNumber(int v) throws IOException {
+            _verifyValueWrite("write a number");
+            writeLong(v);
+        }
+
+        @Override
+        public void writeNumber(long v) throws IOException {
+            _verifyValueWrite("write a number");
+            writeLong(v);
+        }
+
+        @Override
+        public void writeNumber(BigInteger v) throws IOException {
+            if (v == null) {
+                writeNull();
+                return;
+            }
+            _verifyValueWrite("write a number");
+            if (v.bitLength() < 64) {
+                writeLong(v.longValue());
+            } else {
+                writeDouble(v.doubleValue());
+            }
+        }
+
+        @Override
+        public void writeNumber(double v) throws IOException {
+            _verifyValueWrite("write a number");
+            writeDouble(v);
+        }
+
+        @Override
+        public void writeNumber(float v) throws IOException {
+            _verifyValueWrite("write a number");
+            writeDouble(v);
+        }
+
+        @Override
+        public void writeNumber(BigDecimal v) throws IOException {
+            if (v == null) {
+                writeNull();
+                return;
+            }
+            _verifyValueWrite("write a number");
+            writeDouble(v.doubleValue());
+        }
+
+        @Override
+        public void writeNumber(String encodedValue) throws IOException {
+            if (encodedValue == null) {
+                writeNull();
+                return;
+            }
+            try {
+                writeNumber(Long.parseLong(encodedValue));
+            } catch (NumberFormatException notLong) {
+                try {
+                    writeNumber(Double.parseDouble(encodedValue));
+                } catch (NumberFormatException notDouble) {
+                    writeString(encodedValue);
+                }
+            }
+        }
+
+        @Override
+        public void writeBoolean(boolean state) throws IOException {
+            _verifyValueWrite("write a boolean value");
+            writeByte(state ? TAG_TRUE : TAG_FALSE);
+        }
+
+        @Override
+        public void writeNull() throws IOException {
+            _verifyValueWrite("write a null");
+            writeByte(TAG_NULL);
+        }
+
+        @Override
+        public void writeRaw(String text) throws IOException {
+            _reportUnsupportedOperation();
+        }
+
+        @Override
+        public void writeRaw(String text, int offset, int len) throws IOException {
+            _reportUnsupportedOperation();
+        }
+
+        @Override
+        public void writeRaw(char[] text, int offset, int len) throws IOException {
+            _reportUnsupportedOperation();
+        }
+
+        @Override
+        public void writeRaw(char c) throws IOException {
+            _reportUnsupportedOperation();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        protected void _releaseBuffers() {
+        }
+
+        @Override
+        protected void _verifyValueWrite(String typeMsg) throws IOException {
+            if (_writeContext.writeValue() == JsonWriteContext.STATUS_EXPECT_NAME) {
+                _reportError("Can not " + typeMsg + ", expecting field name");
+            }
+            countValue();
+        }
+    }
+}
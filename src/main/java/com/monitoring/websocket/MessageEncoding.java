@@ -0,0 +1,31 @@
+package com.monitoring.websocket;
+
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * 클라이언트별로 협상한 WebSocket 메시지 인코딩
+ * 연결 URL의 ?encoding=binary 로 선택 (기본값 json)
+ */
+public enum MessageEncoding {
+
+    JSON,
+    BINARY;
+
+    public static final String SESSION_ATTRIBUTE = "encoding";
+
+    public static MessageEncoding fromQuery(String query) {
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.equalsIgnoreCase("encoding=binary")) {
+                    return BINARY;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    public static MessageEncoding of(WebSocketSession session) {
+        Object encoding = session.getAttributes().get(SESSION_ATTRIBUTE);
+        return encoding instanceof MessageEncoding ? (MessageEncoding) encoding : JSON;
+    }
+}
@@ -1,6 +1,10 @@
 package com.monitoring.websocket;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitoring.model.ContainerQuery;
+import com.monitoring.service.AdmissionControlService;
+import com.monitoring.service.ContainerQueryService;
 import com.monitoring.service.WebSocketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,17 +14,31 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class MonitoringWebSocketHandler extends TextWebSocketHandler {
 
     private final WebSocketService webSocketService;
+    private final ContainerQueryService containerQueryService;
+    private final AdmissionControlService admissionControlService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         log.info("WebSocket connection established: {}", session.getId());
+
+        // 인코딩 협상 (?encoding=binary), 텍스트 클라이언트는 permessage-deflate 확장을 컨테이너가 처리
+        MessageEncoding encoding = MessageEncoding.fromQuery(
+                session.getUri() != null ? session.getUri().getQuery() : null);
+        session.getAttributes().put(MessageEncoding.SESSION_ATTRIBUTE, encoding);
+        log.debug("Session {} uses {} encoding, extensions: {}", session.getId(), encoding, session.getExtensions());
+
+        admissionControlService.opened(session);
         webSocketService.addSession(session);
 
         // 연결 시 현재 상태 전송
@@ -30,18 +48,50 @@ public class MonitoringWebSocketHandler extends TextWebSocketHandler {
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
         log.debug("Received message from {}: {}", session.getId(), message.getPayload());
-        // 클라이언트로부터 메시지 수신 (필요시 처리)
+
+        try {
+            JsonNode node = objectMapper.readTree(message.getPayload());
+            String type = node.path("type").asText();
+
+            // 클라이언트 화면에 보이는 컨테이너 목록 {"type":"view","containers":[...]}
+            if ("view".equals(type)) {
+                List<String> containers = new ArrayList<>();
+                node.path("containers").forEach(name -> containers.add(name.asText()));
+                webSocketService.setViewedContainers(session, containers);
+            }
+
+            // 쿼리 구독 {"type":"subscribe","id":"...","query":{"kind":"top","metric":"cpu","limit":5}}
+            if ("subscribe".equals(type)) {
+                String id = node.path("id").asText();
+                try {
+                    ContainerQuery query = objectMapper.treeToValue(node.path("query"), ContainerQuery.class);
+                    containerQueryService.subscribe(session, id, query);
+                } catch (IllegalArgumentException e) {
+                    webSocketService.send(session, "query_error", Map.of("id", id, "message", e.getMessage()));
+                }
+            }
+
+            if ("unsubscribe".equals(type)) {
+                containerQueryService.unsubscribe(session, node.path("id").asText());
+            }
+        } catch (Exception e) {
+            log.warn("Invalid message from {}: {}", session.getId(), e.getMessage());
+        }
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         log.info("WebSocket connection closed: {}, status: {}", session.getId(), status);
         webSocketService.removeSession(session);
+        containerQueryService.unsubscribeAll(session);
+        admissionControlService.closed(session);
     }
 
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         log.error("WebSocket transport error: {}", session.getId(), exception);
         webSocketService.removeSession(session);
+        containerQueryService.unsubscribeAll(session);
+        admissionControlService.closed(session);
     }
 }
\ No newline at end of file
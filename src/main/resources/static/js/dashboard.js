@@ -1,6 +1,11 @@
 // WebSocket 연결
 let ws = null;
-let reconnectInterval = null;
+let reconnectTimer = null;
+let reconnectAttempts = 0;
+
+// 재연결 대기 시간 (지터 적용, 서버가 닫을 때 "retry=<ms>"를 주면 그 값 사용)
+const RECONNECT_BASE_MS = 1000;
+const RECONNECT_MAX_MS = 30000;
 
 // 컨테이너 아이콘 매핑
 const containerIcons = {
@@ -11,12 +16,30 @@ const containerIcons = {
     'grafana': '📈'
 };
 
+// 화면에 보이는 컨테이너 (서버의 적응형 샘플링에 사용)
+const visibleContainers = new Set();
+let viewReportTimer = null;
+let lastViewReport = null;
+
+const cardObserver = new IntersectionObserver((entries) => {
+    entries.forEach(entry => {
+        const name = entry.target.dataset.containerName;
+        if (entry.isIntersecting) {
+            visibleContainers.add(name);
+        } else {
+            visibleContainers.delete(name);
+        }
+    });
+    reportViewedContainers();
+});
+
 // 초기화
 document.addEventListener('DOMContentLoaded', () => {
     connectWebSocket();
     updateTime();
     setInterval(updateTime, 1000);
     loadInitialData();
+    document.addEventListener('visibilitychange', reportViewedContainers);
 });
 
 // 현재 시간 업데이트
@@ -29,11 +52,12 @@ function updateTime() {
 function connectWebSocket() {
     const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
     const host = window.location.host;
-    const wsUrl = `${protocol}//${host}/ws/monitoring`;
+    const wsUrl = `${protocol}//${host}/ws/monitoring?encoding=binary`;
 
     addLog('info', `WebSocket 연결 시도: ${wsUrl}`);
 
     ws = new WebSocket(wsUrl);
+    ws.binaryType = 'arraybuffer';
 
     ws.onopen = () => {
         console.log('WebSocket connected');
@@ -41,15 +65,17 @@ function connectWebSocket() {
         document.getElementById('connectionText').textContent = '연결됨';
         addLog('success', 'WebSocket 연결 성공');
 
-        if (reconnectInterval) {
-            clearInterval(reconnectInterval);
-            reconnectInterval = null;
-        }
+        reconnectAttempts = 0;
+
+        lastViewReport = null;
+        reportViewedContainers();
     };
 
     ws.onmessage = (event) => {
         try {
-            const message = JSON.parse(event.data);
+            const message = typeof event.data === 'string'
+                ? JSON.parse(event.data)
+                : decodeBinaryMessage(event.data);
             console.log('Received:', message);
             handleWebSocketMessage(message);
         } catch (error) {
@@ -62,19 +88,128 @@ function connectWebSocket() {
         addLog('error', 'WebSocket 에러 발생');
     };
 
-    ws.onclose = () => {
+    ws.onclose = (event) => {
         console.log('WebSocket disconnected');
         document.getElementById('connectionStatus').classList.remove('connected');
         document.getElementById('connectionText').textContent = '연결 끊김';
-        addLog('warn', 'WebSocket 연결 끊김. 재연결 시도 중...');
 
-        // 5초마다 재연결 시도
-        if (!reconnectInterval) {
-            reconnectInterval = setInterval(() => {
-                connectWebSocket();
-            }, 5000);
+        const delay = reconnectDelay(event.reason);
+        addLog('warn', `WebSocket 연결 끊김. ${(delay / 1000).toFixed(1)}초 후 재연결 시도...`);
+        scheduleReconnect(delay);
+    };
+}
+
+// 서버 힌트가 없으면 지수 백오프 + 지터 (탭마다 다른 시점에 재연결)
+function reconnectDelay(reason) {
+    const hint = /retry=(\d+)/.exec(reason || '');
+    if (hint) {
+        return Number(hint[1]);
+    }
+    const ceiling = Math.min(RECONNECT_MAX_MS, RECONNECT_BASE_MS * 2 ** reconnectAttempts);
+    reconnectAttempts++;
+    return RECONNECT_BASE_MS / 2 + Math.random() * ceiling;
+}
+
+function scheduleReconnect(delay) {
+    clearTimeout(reconnectTimer);
+    reconnectTimer = setTimeout(() => {
+        reconnectTimer = null;
+        connectWebSocket();
+    }, delay);
+}
+
+// 보고 있는 컨테이너 목록 전송 (탭이 숨겨지면 빈 목록)
+function reportViewedContainers() {
+    clearTimeout(viewReportTimer);
+    viewReportTimer = setTimeout(() => {
+        if (!ws || ws.readyState !== WebSocket.OPEN) {
+            return;
+        }
+        const containers = document.hidden ? [] : Array.from(visibleContainers).sort();
+        const report = JSON.stringify({ type: 'view', containers });
+        if (report !== lastViewReport) {
+            ws.send(report);
+            lastViewReport = report;
+        }
+    }, 300);
+}
+
+// 바이너리 메시지 필드 ID (BinaryMessageEncoder.FIELD_NAMES와 같은 순서)
+const FIELD_NAMES = [
+    'type', 'data', 'timestamp',
+    'containerName', 'status', 'phase', 'progress', 'lastUpdate',
+    'cpu', 'memory', 'uptime', 'waitingFor', 'flapping',
+    'since', 'cycles', 'suppressedEvents', 'restartsPerMinute', 'lastEvent',
+    'eventType', 'message',
+    'branch', 'commitMessage', 'pusher', 'workflowName', 'conclusion',
+    'state', 'phases'
+];
+const textDecoder = new TextDecoder();
+
+// 바이너리 메시지 디코딩 (형식은 BinaryMessageEncoder 참고)
+function decodeBinaryMessage(buffer) {
+    const view = new DataView(buffer);
+    let offset = 1;  // version
+
+    const readVarint = () => {
+        let result = 0;
+        let multiplier = 1;
+        let b;
+        do {
+            b = view.getUint8(offset++);
+            result += (b & 0x7f) * multiplier;
+            multiplier *= 128;
+        } while (b & 0x80);
+        return result;
+    };
+
+    const readString = () => {
+        const length = readVarint();
+        const text = textDecoder.decode(new Uint8Array(buffer, offset, length));
+        offset += length;
+        return text;
+    };
+
+    const readValue = () => {
+        const tag = view.getUint8(offset++);
+        switch (tag) {
+            case 0: return null;
+            case 1: return false;
+            case 2: return true;
+            case 3: {
+                const zigzag = readVarint();
+                return zigzag % 2 === 0 ? zigzag / 2 : -(zigzag + 1) / 2;
+            }
+            case 4: {
+                const value = view.getFloat64(offset);
+                offset += 8;
+                return value;
+            }
+            case 5: return readString();
+            case 6: {
+                const object = {};
+                const count = readVarint();
+                for (let i = 0; i < count; i++) {
+                    const id = readVarint();
+                    const key = id > 0 ? FIELD_NAMES[id - 1] : readString();
+                    object[key] = readValue();
+                }
+                return object;
+            }
+            case 7: {
+                const array = [];
+                const count = readVarint();
+                for (let i = 0; i < count; i++) {
+                    array.push(readValue());
+                }
+                return array;
+            }
+            default:
+                throw new Error(`Unknown tag: ${tag}`);
         }
     };
+
+    return readValue();
 }
 
 // WebSocket 메시지 처리
@@ -95,6 +230,12 @@ function handleWebSocketMessage(message) {
         case 'github_workflow':
             handleGithubWorkflow(message.data);
             break;
+        case 'monitor_state':
+            handleMonitorState(message.data);
+            break;
+        case 'rollout_report':
+            handleRolloutReport(message.data);
+            break;
         default:
             console.log('Unknown message type:', message.type);
     }
@@ -116,11 +257,14 @@ async function loadInitialData() {
 // 모든 컨테이너 업데이트
 function updateAllContainers(containers) {
     const grid = document.getElementById('containerGrid');
+    grid.querySelectorAll('.container-card').forEach(card => cardObserver.unobserve(card));
     grid.innerHTML = '';
+    visibleContainers.clear();
 
     Object.entries(containers).forEach(([name, status]) => {
         const card = createContainerCard(name, status);
         grid.appendChild(card);
+        cardObserver.observe(card);
     });
 }
 
@@ -128,18 +272,23 @@ function updateAllContainers(containers) {
 function updateContainer(status) {
     const existingCard = document.getElementById(`container-${status.containerName}`);
 
+    const card = createContainerCard(status.containerName, status);
+
     if (existingCard) {
-        existingCard.replaceWith(createContainerCard(status.containerName, status));
+        cardObserver.unobserve(existingCard);
+        existingCard.replaceWith(card);
     } else {
         const grid = document.getElementById('containerGrid');
-        grid.appendChild(createContainerCard(status.containerName, status));
+        grid.appendChild(card);
     }
+    cardObserver.observe(card);
 }
 
 // 컨테이너 카드 생성
 function createContainerCard(name, status) {
     const card = document.createElement('div');
     card.id = `container-${name}`;
+    card.dataset.containerName = name;
     card.className = `container-card ${status.phase || 'unknown'}`;
 
     const icon = containerIcons[name] || '📦';
@@ -148,21 +297,37 @@ function createContainerCard(name, status) {
 
     card.innerHTML = `
         <div class="container-icon">${icon}</div>
-        <div class="container-name">${name}</div>
-        <div class="container-status ${phase}">${getPhaseText(phase)}</div>
+        <div class="container-name">${escapeHtml(name)}</div>
+        <div class="container-status ${escapeHtml(phase)}">${escapeHtml(getPhaseText(phase))}</div>
         <div class="progress-bar">
-            <div class="progress-fill" style="width: ${progress}%"></div>
+            <div class="progress-fill" style="width: ${Number(progress) || 0}%"></div>
         </div>
         <div class="container-info">
-            ${status.cpu ? `CPU: ${status.cpu} | ` : ''}
-            ${status.memory ? `MEM: ${status.memory} | ` : ''}
-            ${status.uptime ? `가동: ${status.uptime}` : ''}
+            ${status.cpu ? `CPU: ${escapeHtml(status.cpu)} | ` : ''}
+            ${status.memory ? `MEM: ${escapeHtml(status.memory)} | ` : ''}
+            ${status.uptime ? `가동: ${escapeHtml(status.uptime)}` : ''}
         </div>
+        ${status.waitingFor ? `
+        <div class="container-info waiting">대기 중: ${escapeHtml(status.waitingFor)}</div>` : ''}
+        ${status.flapping ? `
+        <div class="container-info flapping">
+            재시작 ${Number(status.flapping.cycles)}회 | ${Number(status.flapping.restartsPerMinute).toFixed(1)}회/분 | 생략된 이벤트 ${Number(status.flapping.suppressedEvents)}
+        </div>` : ''}
     `;
 
     return card;
 }
 
+// innerHTML에 넣는 서버 값 이스케이프
+function escapeHtml(value) {
+    return String(value ?? '')
+        .replace(/&/g, '&amp;')
+        .replace(/</g, '&lt;')
+        .replace(/>/g, '&gt;')
+        .replace(/"/g, '&quot;')
+        .replace(/'/g, '&#39;');
+}
+
 // Phase 텍스트 변환
 function getPhaseText(phase) {
     const phaseMap = {
@@ -171,7 +336,8 @@ function getPhaseText(phase) {
         'running': '실행 중',
         'stopping': '중지 중',
         'stopped': '중지됨',
-        'removed': '삭제됨'
+        'removed': '삭제됨',
+        'flapping': '재시작 반복'
     };
     return phaseMap[phase] || phase;
 }
@@ -182,6 +348,28 @@ function handleDockerEvent(data) {
     addLog('info', `${data.containerName}: ${eventType}`);
 }
 
+// 배포 완료 리포트 처리
+function handleRolloutReport(data) {
+    const seconds = (data.durationMs / 1000).toFixed(1);
+    const baseline = data.baselineDurationMs != null ? ` (평균 ${(data.baselineDurationMs / 1000).toFixed(1)}초)` : '';
+    addLog(data.timedOut ? 'warn' : 'success', `배포 완료 ${seconds}초${baseline} | critical path: ${data.criticalPath.join(' → ')}`);
+
+    if (data.regressions.length > 0) {
+        addLog('warn', `시작이 느려진 컨테이너: ${data.regressions.join(', ')}`);
+    }
+}
+
+// 모니터 시작 상태 처리
+function handleMonitorState(data) {
+    if (data.state === 'warming') {
+        addLog('info', '컨테이너 탐색 중...');
+    } else if (data.state === 'ready') {
+        addLog('success', `컨테이너 탐색 완료 (${data.phases.total}ms)`);
+    } else {
+        addLog('warn', `컨테이너 탐색 실패: ${data.state}`);
+    }
+}
+
 // GitHub Push 이벤트 처리
 function handleGithubPush(data) {
     const container = document.getElementById('githubEvents');
@@ -192,9 +380,9 @@ function handleGithubPush(data) {
         <div class="event-time">${new Date(data.timestamp).toLocaleTimeString('ko-KR')}</div>
         <div class="event-message">
             <strong>📝 Push 이벤트</strong><br>
-            브랜치: ${data.branch}<br>
-            메시지: ${data.commitMessage}<br>
-            작성자: ${data.pusher}
+            브랜치: ${escapeHtml(data.branch)}<br>
+            메시지: ${escapeHtml(data.commitMessage)}<br>
+            작성자: ${escapeHtml(data.pusher)}
         </div>
     `;
 
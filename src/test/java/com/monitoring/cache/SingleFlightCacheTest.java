@@ -0,0 +1,183 @@
+package com.monitoring.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightCacheTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void returnsCachedValueWithinTtl() {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("api-1", cache.get("api", key -> key + "-" + loads.incrementAndGet()));
+        assertEquals("api-1", cache.get("api", key -> key + "-" + loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void reloadsAfterTtl() {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(0);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("api", key -> loads.incrementAndGet());
+        cache.get("api", key -> loads.incrementAndGet());
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void doesNotCacheNull() {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get("api", key -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        cache.get("api", key -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void coalescesConcurrentCalls() throws Exception {
+        SingleFlightCache<String, Object> cache = new SingleFlightCache<>(60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Object value = new Object();
+
+        Future<Object> leader = executor.submit(() -> cache.get("api", key -> {
+            loads.incrementAndGet();
+            await(release);
+            return value;
+        }));
+        waitUntil(() -> loads.get() == 1);
+
+        Future<Object> follower = executor.submit(() -> cache.get("api", key -> {
+            loads.incrementAndGet();
+            return new Object();
+        }));
+        waitUntil(() -> cache.getCoalesced() == 1);
+        release.countDown();
+
+        assertSame(value, leader.get(5, TimeUnit.SECONDS));
+        assertSame(value, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void discardsResultInvalidatedDuringLoad() throws Exception {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> stale = executor.submit(() -> cache.get("api", key -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        await(started);
+        cache.invalidate("api");
+        release.countDown();
+
+        assertEquals(1, stale.get(5, TimeUnit.SECONDS));
+        // 무효화 이전에 시작된 호출의 결과는 캐시되지 않음
+        assertEquals(2, cache.get("api", key -> 2));
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    void propagatesExceptionToWaitersAndRetries() throws Exception {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<Integer> leader = executor.submit(() -> cache.get("api", key -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new IllegalStateException("docker unavailable");
+        }));
+        waitUntil(() -> loads.get() == 1);
+        Future<Integer> follower = executor.submit(() -> cache.get("api", key -> 0));
+        waitUntil(() -> cache.getCoalesced() == 1);
+        release.countDown();
+
+        assertInstanceOf(IllegalStateException.class, causeOf(leader));
+        assertInstanceOf(IllegalStateException.class, causeOf(follower));
+        assertEquals(3, cache.get("api", key -> 3));
+    }
+
+    @Test
+    void completesWaitersWhenLoaderThrowsError() throws Exception {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<Integer> leader = executor.submit(() -> cache.get("api", key -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new StackOverflowError();
+        }));
+        waitUntil(() -> loads.get() == 1);
+        Future<Integer> follower = executor.submit(() -> cache.get("api", key -> 0));
+        waitUntil(() -> cache.getCoalesced() == 1);
+        release.countDown();
+
+        assertInstanceOf(StackOverflowError.class, causeOf(leader));
+        assertInstanceOf(StackOverflowError.class, causeOf(follower));
+        assertEquals(4, cache.get("api", key -> 4));
+    }
+
+    private static Throwable causeOf(Future<?> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(1);
+        }
+    }
+}
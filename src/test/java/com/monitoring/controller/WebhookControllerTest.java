@@ -0,0 +1,80 @@
+package com.monitoring.controller;
+
+import com.monitoring.service.WebhookQueueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class WebhookControllerTest {
+
+    private WebhookQueueService webhookQueueService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        webhookQueueService = mock(WebhookQueueService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new WebhookController(webhookQueueService)).build();
+    }
+
+    @Test
+    void rateLimitedReturns429WithRetryAfter() throws Exception {
+        when(webhookQueueService.submit(eq("push"), any())).thenReturn(WebhookQueueService.Result.RATE_LIMITED);
+
+        mockMvc.perform(github("push", "not json"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void fullQueueReturns503WithRetryAfter() throws Exception {
+        when(webhookQueueService.submit(eq("push"), any())).thenReturn(WebhookQueueService.Result.QUEUE_FULL);
+
+        mockMvc.perform(github("push", "not json"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    void readsBodyOnlyThroughAdmittedReader() throws Exception {
+        AtomicReference<Map<String, Object>> read = new AtomicReference<>();
+        doAnswer(invocation -> {
+            WebhookQueueService.PayloadReader reader = invocation.getArgument(1);
+            read.set(reader.read());
+            return WebhookQueueService.Result.ACCEPTED;
+        }).when(webhookQueueService).submit(eq("push"), any());
+
+        mockMvc.perform(github("push", "{\"ref\":\"refs/heads/main\"}"))
+                .andExpect(status().isAccepted());
+        assertEquals("refs/heads/main", read.get().get("ref"));
+    }
+
+    @Test
+    void invalidPayloadReturns400() throws Exception {
+        when(webhookQueueService.submit(eq("push"), any())).thenReturn(WebhookQueueService.Result.INVALID_PAYLOAD);
+
+        mockMvc.perform(github("push", "{"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static org.springframework.test.web.servlet.RequestBuilder github(String event, String body) {
+        return post("/webhook/github")
+                .header("X-GitHub-Event", event)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
@@ -0,0 +1,135 @@
+package com.monitoring.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OpenMetricsWriterTest {
+
+    @Test
+    void writesFamiliesSamplesAndEof() throws IOException {
+        OpenMetricsWriter writer = new OpenMetricsWriter();
+        writer.counter("docker_events", "Docker events received");
+        writer.sample("docker_events_total").label("type", "start").label("container", "api").value(3);
+        writer.gauge("container_cpu_percent", null);
+        writer.sample("container_cpu_percent").value(1.5);
+        writer.eof();
+
+        assertEquals("# TYPE docker_events counter\n"
+                + "# HELP docker_events Docker events received\n"
+                + "docker_events_total{type=\"start\",container=\"api\"} 3\n"
+                + "# TYPE container_cpu_percent gauge\n"
+                + "container_cpu_percent 1.5\n"
+                + "# EOF\n", output(writer));
+    }
+
+    @Test
+    void writesStateset() throws IOException {
+        OpenMetricsWriter writer = new OpenMetricsWriter();
+        writer.stateset("container_state", "Container state");
+        writer.sample("container_state").label("container", "api").label("container_state", "running").value(1);
+
+        assertEquals("# TYPE container_state stateset\n"
+                + "# HELP container_state Container state\n"
+                + "container_state{container=\"api\",container_state=\"running\"} 1\n", output(writer));
+    }
+
+    @Test
+    void escapesHelpAndLabelValues() throws IOException {
+        OpenMetricsWriter writer = new OpenMetricsWriter();
+        writer.gauge("g", "say \"hi\"\\n\nnext");
+        writer.sample("g").label("path", "C:\\tmp\n\"x\"").label("empty", null).value(0);
+
+        assertEquals("# TYPE g gauge\n"
+                + "# HELP g say \\\"hi\\\"\\\\n\\nnext\n"
+                + "g{path=\"C:\\\\tmp\\n\\\"x\\\"\",empty=\"\"} 0\n", output(writer));
+    }
+
+    @Test
+    void encodesNonAsciiLabelValuesAsUtf8() throws IOException {
+        OpenMetricsWriter writer = new OpenMetricsWriter();
+        writer.sample("g").label("name", "é컨테이너😀").value(1);
+
+        assertEquals("g{name=\"é컨테이너😀\"} 1\n", output(writer));
+    }
+
+    @Test
+    void formatsNumbers() throws IOException {
+        OpenMetricsWriter writer = new OpenMetricsWriter();
+        writer.sample("a").value(Long.MIN_VALUE);
+        writer.sample("b").value(-42);
+        writer.sample("c").value(-0.25);
+        writer.sample("d").value(2.0);
+        writer.sample("e").value(0.0005);
+        writer.sample("f").value(9.9996);
+        writer.sample("g").value(Double.NaN);
+        writer.sample("h").value(Double.POSITIVE_INFINITY);
+        writer.sample("i").value(Double.NEGATIVE_INFINITY);
+
+        assertEquals("a -9223372036854775808\n"
+                + "b -42\n"
+                + "c -0.25\n"
+                + "d 2\n"
+                + "e 5.0E-4\n"
+                + "f 9.9996\n"
+                + "g NaN\n"
+                + "h +Inf\n"
+                + "i -Inf\n", output(writer));
+    }
+
+    @Test
+    void keepsSmallAndPreciseValues() throws IOException {
+        double[] values = {1.0E-7, 0.000123, 0.1 + 0.2, 1234.5678, -3.0E-9, 1.0E20 + 0.5, 0.001};
+        OpenMetricsWriter writer = new OpenMetricsWriter();
+        for (double value : values) {
+            writer.sample("v").value(value);
+        }
+
+        String[] lines = output(writer).split("\n");
+        assertEquals(values.length, lines.length);
+        for (int i = 0; i < values.length; i++) {
+            // 0이 되거나 반올림되지 않고 같은 double로 다시 읽혀야 함
+            assertEquals(values[i], Double.parseDouble(lines[i].substring("v ".length())), lines[i]);
+        }
+        assertEquals("v 1.0E-7", lines[0]);
+        assertEquals("v 0.001", lines[6]);
+    }
+
+    @Test
+    void copiesOutputIndependentlyOfLaterWrites() throws IOException {
+        OpenMetricsWriter writer = new OpenMetricsWriter();
+        writer.sample("a").value(1);
+        byte[] copy = writer.toByteArray();
+
+        writer.reset();
+        writer.sample("b").value(2);
+        assertEquals("a 1\n", new String(copy, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void growsBufferAndResets() throws IOException {
+        OpenMetricsWriter writer = new OpenMetricsWriter(4);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            writer.sample("sample").label("index", Integer.toString(i)).value(i * 1000L);
+            expected.append("sample{index=\"").append(i).append("\"} ").append(i * 1000L).append('\n');
+        }
+        assertEquals(expected.toString(), output(writer));
+        assertEquals(expected.length(), writer.size());
+
+        writer.reset();
+        assertEquals(0, writer.size());
+        writer.eof();
+        assertEquals("# EOF\n", output(writer));
+    }
+
+    private static String output(OpenMetricsWriter writer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+package com.monitoring.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    // 테스트 도중 토큰이 채워지지 않을 만큼 느린 속도
+    private static final double NO_REFILL = 1e-6;
+
+    @Test
+    void allowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(5, NO_REFILL);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire());
+        }
+        assertFalse(bucket.tryAcquire());
+        assertTrue(bucket.getAvailableTokens() < 1);
+    }
+
+    @Test
+    void refillsOverTimeWithoutExceedingCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(3, 1000);
+        while (bucket.tryAcquire()) {
+            // 비우기
+        }
+
+        Thread.sleep(50);
+        assertTrue(bucket.tryAcquire());
+        assertEquals(3.0, bucket.getAvailableTokens(), 1.0);
+        assertTrue(bucket.getAvailableTokens() <= 3.0);
+    }
+
+    @Test
+    void grantsExactlyCapacityUnderContention() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, NO_REFILL);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 50; i++) {
+                    if (bucket.tryAcquire()) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, granted.get());
+    }
+}
@@ -0,0 +1,154 @@
+package com.monitoring.service;
+
+import com.monitoring.model.ContainerStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 매 tick마다 lastUpdate를 바꿔 즉시 샘플링시키고 주기 변화를 확인
+ */
+class AdaptiveSamplingServiceTest {
+
+    private static final String CONTAINER = "api";
+
+    private ContainerStatusService containerStatusService;
+    private CgroupStatsService cgroupStatsService;
+    private WebSocketService webSocketService;
+    private AdaptiveSamplingService service;
+
+    private final ContainerStatus status = ContainerStatus.builder().containerName(CONTAINER).phase("running").build();
+    private final CgroupStatsService.ContainerUsage usage = mock(CgroupStatsService.ContainerUsage.class);
+    private long update;
+
+    @BeforeEach
+    void setUp() {
+        containerStatusService = mock(ContainerStatusService.class);
+        cgroupStatsService = mock(CgroupStatsService.class);
+        ClusterService clusterService = mock(ClusterService.class);
+        webSocketService = new WebSocketService(containerStatusService, mock(ContainerDiscoveryService.class),
+                clusterService, mock(AdmissionControlService.class));
+
+        when(clusterService.isDockerOwner()).thenReturn(true);
+        when(containerStatusService.getContainerNames()).thenReturn(Set.of(CONTAINER));
+        when(containerStatusService.getStatus(CONTAINER)).thenReturn(status);
+        when(cgroupStatsService.getUsage(CONTAINER)).thenReturn(usage);
+        when(usage.getSampleCount()).thenReturn(1L);
+        when(usage.getCpuPercent()).thenReturn(10.0);
+        when(usage.getMemoryBytes()).thenReturn(100_000_000L);
+
+        service = new AdaptiveSamplingService(containerStatusService, cgroupStatsService, webSocketService, clusterService);
+        ReflectionTestUtils.setField(service, "fastIntervalMs", 1000L);
+        ReflectionTestUtils.setField(service, "baseIntervalMs", 5000L);
+        ReflectionTestUtils.setField(service, "maxIntervalMs", 30000L);
+        ReflectionTestUtils.setField(service, "idleIntervalMs", 60000L);
+
+        webSocketService.addSession(session("watcher"));
+    }
+
+    @Test
+    void backsOffWhileStableUpToMax() {
+        // 첫 샘플은 이전 값이 없어 변화로 봄
+        assertEquals(List.of(5000L, 5000L, 10000L, 20000L, 30000L, 30000L), intervals(6));
+    }
+
+    @Test
+    void resetsToBaseWhenUsageChanges() {
+        intervals(5);
+
+        when(usage.getCpuPercent()).thenReturn(50.0);
+        assertEquals(List.of(30000L, 5000L, 10000L), intervals(3));
+    }
+
+    @Test
+    void transitionSamplesFastAndRestartsBackOff() {
+        intervals(5);
+
+        status.setPhase("starting");
+        assertEquals(List.of(1000L, 1000L), intervals(2));
+        assertEquals("transition", reason());
+
+        status.setPhase("running");
+        assertEquals(List.of(5000L, 10000L), intervals(2));
+    }
+
+    @Test
+    void viewSamplesFastAndClosedSessionStopsCounting() {
+        intervals(5);
+        WebSocketSession viewer = session("viewer");
+        webSocketService.addSession(viewer);
+        webSocketService.setViewedContainers(viewer, List.of(CONTAINER));
+
+        assertEquals(List.of(1000L, 1000L), intervals(2));
+        assertEquals("viewed", reason());
+
+        webSocketService.removeSession(viewer);
+        assertFalse(webSocketService.isViewed(CONTAINER));
+        assertEquals(List.of(5000L, 10000L), intervals(2));
+    }
+
+    @Test
+    void viewAfterCloseIsDropped() {
+        WebSocketSession viewer = session("viewer");
+        webSocketService.addSession(viewer);
+        webSocketService.setViewedContainers(viewer, List.of(CONTAINER));
+        assertTrue(webSocketService.isViewed(CONTAINER));
+
+        webSocketService.removeSession(viewer);
+        webSocketService.setViewedContainers(viewer, List.of(CONTAINER));
+        assertFalse(webSocketService.isViewed(CONTAINER));
+        assertTrue(webSocketService.getViewedContainers().isEmpty());
+
+        // 빈 목록은 항목을 남기지 않음
+        WebSocketSession other = session("other");
+        webSocketService.addSession(other);
+        webSocketService.setViewedContainers(other, List.of(CONTAINER));
+        webSocketService.setViewedContainers(other, List.of());
+        assertFalse(webSocketService.isViewed(CONTAINER));
+    }
+
+    @Test
+    void idleWithoutSessions() {
+        webSocketService.removeSession(session("watcher"));
+
+        assertEquals(List.of(60000L), intervals(1));
+        assertEquals("idle", reason());
+    }
+
+    private List<Long> intervals(int ticks) {
+        Long[] result = new Long[ticks];
+        for (int i = 0; i < ticks; i++) {
+            status.setLastUpdate(++update);
+            service.tick();
+            result[i] = (Long) container().get("intervalMs");
+        }
+        return List.of(result);
+    }
+
+    private String reason() {
+        return (String) container().get("reason");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> container() {
+        Map<String, Object> containers = (Map<String, Object>) service.getSamplingStatus().get("containers");
+        return (Map<String, Object>) containers.get(CONTAINER);
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        return session;
+    }
+}
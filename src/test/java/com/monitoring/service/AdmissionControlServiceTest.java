@@ -0,0 +1,112 @@
+package com.monitoring.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlServiceTest {
+
+    private AdmissionControlService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AdmissionControlService();
+        ReflectionTestUtils.setField(service, "maxSessions", 3);
+        ReflectionTestUtils.setField(service, "maxSessionsPerIp", 2);
+        ReflectionTestUtils.setField(service, "connectBurst", 100.0);
+        ReflectionTestUtils.setField(service, "connectRate", 100.0);
+        ReflectionTestUtils.setField(service, "perIpConnectBurst", 100.0);
+        ReflectionTestUtils.setField(service, "perIpConnectRate", 100.0);
+        ReflectionTestUtils.setField(service, "reconnectMinMs", 1000L);
+        ReflectionTestUtils.setField(service, "reconnectMaxMs", 3000L);
+    }
+
+    @Test
+    void shedsAtSessionLimitUntilASessionCloses() {
+        service.init();
+        WebSocketSession first = connect("10.0.0.1");
+        connect("10.0.0.2");
+        connect("10.0.0.3");
+
+        AdmissionControlService.Decision decision = service.admit("10.0.0.4");
+        assertEquals(AdmissionControlService.Decision.SESSION_LIMIT, decision);
+        assertEquals(503, decision.httpStatus());
+
+        // 두 번 닫아도 한 번만 반영
+        service.closed(first);
+        service.closed(first);
+        assertEquals(2, service.getSessionCount());
+        assertEquals(AdmissionControlService.Decision.ACCEPTED, service.admit("10.0.0.4"));
+    }
+
+    @Test
+    void shedsAtPerIpSessionLimit() {
+        service.init();
+        connect("10.0.0.1");
+        connect("10.0.0.1");
+
+        assertEquals(AdmissionControlService.Decision.IP_SESSION_LIMIT, service.admit("10.0.0.1"));
+        assertEquals(AdmissionControlService.Decision.ACCEPTED, service.admit("10.0.0.2"));
+    }
+
+    @Test
+    void rateLimitsPerIpAndGlobally() {
+        ReflectionTestUtils.setField(service, "perIpConnectBurst", 2.0);
+        ReflectionTestUtils.setField(service, "perIpConnectRate", 0.001);
+        ReflectionTestUtils.setField(service, "connectBurst", 3.0);
+        ReflectionTestUtils.setField(service, "connectRate", 0.001);
+        service.init();
+
+        assertEquals(AdmissionControlService.Decision.ACCEPTED, service.admit("10.0.0.1"));
+        assertEquals(AdmissionControlService.Decision.ACCEPTED, service.admit("10.0.0.1"));
+        AdmissionControlService.Decision decision = service.admit("10.0.0.1");
+        assertEquals(AdmissionControlService.Decision.IP_RATE_LIMITED, decision);
+        assertEquals(429, decision.httpStatus());
+
+        assertEquals(AdmissionControlService.Decision.ACCEPTED, service.admit("10.0.0.2"));
+        assertEquals(AdmissionControlService.Decision.RATE_LIMITED, service.admit("10.0.0.3"));
+    }
+
+    @Test
+    void sessionLimitRejectionDoesNotConsumeTokens() {
+        ReflectionTestUtils.setField(service, "maxSessionsPerIp", 1);
+        ReflectionTestUtils.setField(service, "perIpConnectBurst", 2.0);
+        ReflectionTestUtils.setField(service, "perIpConnectRate", 0.001);
+        service.init();
+        WebSocketSession session = connect("10.0.0.1");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(AdmissionControlService.Decision.IP_SESSION_LIMIT, service.admit("10.0.0.1"));
+        }
+        service.closed(session);
+        assertEquals(AdmissionControlService.Decision.ACCEPTED, service.admit("10.0.0.1"));
+    }
+
+    @Test
+    void reconnectHintStaysWithinConfiguredRange() {
+        service.init();
+        for (int i = 0; i < 1000; i++) {
+            long hint = service.reconnectHintMillis();
+            assertTrue(hint >= 1000 && hint <= 3000, "hint " + hint);
+        }
+    }
+
+    private WebSocketSession connect(String ip) {
+        assertEquals(AdmissionControlService.Decision.ACCEPTED, service.admit(ip));
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(AdmissionControlService.CLIENT_IP_ATTRIBUTE, ip);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(attributes);
+        service.opened(session);
+        return session;
+    }
+}
@@ -0,0 +1,171 @@
+package com.monitoring.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 임시 디렉토리에 만든 cgroup v2 파일로 파서 검증
+ */
+class CgroupStatsServiceTest {
+
+    private static final String CONTAINER = "api";
+    private static final String ID = "0123456789abcdef";
+
+    @TempDir
+    Path root;
+
+    private CgroupStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CgroupStatsService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "cgroupRoot", root.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.closeAll();
+    }
+
+    @Test
+    void readsMemoryWithoutInactiveFileAndSumsIoAcrossDevices() throws IOException {
+        Path dir = systemdScope();
+        writeCgroup(dir, 1_000_000);
+
+        service.track(CONTAINER, ID);
+        assertTrue(service.sample(CONTAINER));
+
+        CgroupStatsService.ContainerUsage usage = service.getUsage(CONTAINER);
+        assertEquals(1, usage.getSampleCount());
+        // memory.current - inactive_file
+        assertEquals(104_857_600 - 4_194_304, usage.getMemoryBytes());
+        // 장치별 rbytes/wbytes 합계 (rios/wios 등 다른 필드는 무시)
+        assertEquals(4096 + 1_048_576, usage.getIoReadBytes());
+        assertEquals(8192 + 2_097_152, usage.getIoWriteBytes());
+        // 첫 샘플은 이전 값이 없어 CPU 사용률 계산 안 함
+        assertEquals(0.0, usage.getCpuPercent());
+    }
+
+    @Test
+    void computesCpuPercentFromUsageDelta() throws Exception {
+        Path dir = systemdScope();
+        writeCgroup(dir, 1_000_000);
+        service.track(CONTAINER, ID);
+        assertTrue(service.sample(CONTAINER));
+
+        Thread.sleep(20);
+        // 같은 파일을 덮어써도 열어 둔 채널로 새 내용을 읽어야 함
+        writeCgroup(dir, 1_000_000 + 20_000_000);
+        assertTrue(service.sample(CONTAINER));
+
+        CgroupStatsService.ContainerUsage usage = service.getUsage(CONTAINER);
+        assertEquals(2, usage.getSampleCount());
+        assertTrue(usage.getCpuPercent() > 0, "cpu percent " + usage.getCpuPercent());
+    }
+
+    @Test
+    void resolvesCgroupfsLayout() throws IOException {
+        Path dir = root.resolve("docker").resolve(ID);
+        Files.createDirectories(dir);
+        writeCgroup(dir, 5);
+
+        service.track(CONTAINER, ID);
+        assertTrue(service.sample(CONTAINER));
+        assertEquals(104_857_600 - 4_194_304, service.getUsage(CONTAINER).getMemoryBytes());
+    }
+
+    @Test
+    void usesMemoryCurrentWhenInactiveFileIsMissing() throws IOException {
+        Path dir = systemdScope();
+        writeCgroup(dir, 5);
+        // "inactive_file"로 시작하지만 다른 키인 줄과 값이 없는 줄은 건너뜀
+        Files.writeString(dir.resolve("memory.stat"), "anon 100\ninactive_filex 7\nactive_file 9\nfile\n");
+
+        service.track(CONTAINER, ID);
+        assertTrue(service.sample(CONTAINER));
+        assertEquals(104_857_600, service.getUsage(CONTAINER).getMemoryBytes());
+    }
+
+    @Test
+    void nonNumericValueReadsAsMinusOne() throws IOException {
+        Path dir = systemdScope();
+        writeCgroup(dir, 5);
+        Files.writeString(dir.resolve("memory.current"), "max\n");
+
+        service.track(CONTAINER, ID);
+        assertTrue(service.sample(CONTAINER));
+        assertEquals(-1, service.getUsage(CONTAINER).getMemoryBytes());
+    }
+
+    @Test
+    void failsWhenAFileIsMissing() throws IOException {
+        Path dir = systemdScope();
+        writeCgroup(dir, 5);
+        Files.delete(dir.resolve("io.stat"));
+
+        service.track(CONTAINER, ID);
+        assertFalse(service.sample(CONTAINER));
+        assertEquals(0, service.getUsage(CONTAINER).getSampleCount());
+    }
+
+    @Test
+    void emptyIoStatReadsAsZero() throws IOException {
+        Path dir = systemdScope();
+        writeCgroup(dir, 5);
+        Files.writeString(dir.resolve("io.stat"), "");
+
+        service.track(CONTAINER, ID);
+        assertTrue(service.sample(CONTAINER));
+        assertEquals(0, service.getUsage(CONTAINER).getIoReadBytes());
+        assertEquals(0, service.getUsage(CONTAINER).getIoWriteBytes());
+    }
+
+    @Test
+    void failsWhenCgroupDirectoryIsMissingAndRecoversOnceItAppears() throws IOException {
+        service.track(CONTAINER, ID);
+        assertFalse(service.sample(CONTAINER));
+        assertEquals(0, service.getUsage(CONTAINER).getSampleCount());
+
+        writeCgroup(systemdScope(), 5);
+        assertTrue(service.sample(CONTAINER));
+        assertEquals(1, service.getUsage(CONTAINER).getSampleCount());
+    }
+
+    @Test
+    void ignoresTrackingWhenDisabled() {
+        ReflectionTestUtils.setField(service, "enabled", false);
+
+        service.track(CONTAINER, ID);
+        assertFalse(service.isTracked(CONTAINER));
+        assertNull(service.getUsage(CONTAINER));
+        assertFalse(service.sample(CONTAINER));
+    }
+
+    private Path systemdScope() throws IOException {
+        return Files.createDirectories(root.resolve("system.slice").resolve("docker-" + ID + ".scope"));
+    }
+
+    private static void writeCgroup(Path dir, long usageUsec) throws IOException {
+        Files.writeString(dir.resolve("cpu.stat"),
+                "usage_usec " + usageUsec + "\nuser_usec 1\nsystem_usec 2\nnr_periods 0\n");
+        Files.writeString(dir.resolve("memory.current"), "104857600\n");
+        Files.writeString(dir.resolve("memory.stat"),
+                "anon 1000\nfile 2000\nactive_file 3000\ninactive_file 4194304\nslab 10\n");
+        Files.writeString(dir.resolve("io.stat"),
+                "8:0 rbytes=4096 wbytes=8192 rios=1 wios=2 dbytes=0 dios=0\n"
+                        + "259:0 rbytes=1048576 wbytes=2097152 rios=3 wios=4 dbytes=0 dios=0\n");
+    }
+}
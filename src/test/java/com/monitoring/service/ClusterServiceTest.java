@@ -0,0 +1,375 @@
+package com.monitoring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.monitoring.metrics.OpenMetricsWriter;
+import com.monitoring.model.ClusterMessage;
+import com.monitoring.model.ContainerStatus;
+import com.monitoring.model.WebSocketMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 루프백 포트로 실제 노드 간 복제 프로토콜 검증
+ * (상대 노드가 필요한 경우 두 인스턴스를 띄우고, 메시지 순서를 제어해야 하는 경우 테스트가 직접 노드 역할을 함)
+ */
+class ClusterServiceTest {
+
+    private static final String SECRET = "s3cret";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ClusterService> nodes = new ArrayList<>();
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        nodes.forEach(ClusterService::stop);
+    }
+
+    @Test
+    void nodesConvergeThroughAntiEntropyAndUpdates() throws Exception {
+        Node a = startNode("a", SECRET, List.of());
+        a.store.put("api", status("api", "running", 1000L));
+        Node b = startNode("b", SECRET, List.of("127.0.0.1:" + a.port));
+        b.store.put("db", status("db", "running", 1000L));
+
+        // 연결 시 각자 상대에게 없는 상태를 전송
+        waitUntil(() -> b.store.containsKey("api") && a.store.containsKey("db"));
+        assertEquals("1", metric(a.cluster, "cluster_peers_connected"));
+        waitUntil(() -> b.cluster.getInitialSync().isDone());
+        assertEquals("1", metric(b.cluster, "cluster_initial_sync_complete"));
+
+        // 이후 로컬 변경은 더 큰 버전으로 전달
+        a.cluster.publish(WebSocketMessage.of("container_status_update", status("api", "stopped", 2000L)));
+        waitUntil(() -> "stopped".equals(b.store.get("api").getPhase()));
+    }
+
+    @Test
+    void rejectsPeerWithDifferentSecret() throws Exception {
+        Node a = startNode("a", SECRET, List.of());
+        a.store.put("api", status("api", "running", 1000L));
+        Node b = startNode("b", "other", List.of("127.0.0.1:" + a.port));
+
+        waitUntil(() -> !"0".equals(metric(a.cluster, "cluster_auth_failures_total"))
+                && !"0".equals(metric(b.cluster, "cluster_auth_failures_total")));
+        assertEquals("0", metric(a.cluster, "cluster_peers_connected"));
+        assertEquals("0", metric(b.cluster, "cluster_peers_connected"));
+        assertFalse(b.store.containsKey("api"));
+    }
+
+    @Test
+    void staleUpdateLosesToNewerOne() throws Exception {
+        Node a = startNode("a", SECRET, List.of());
+        FakePeer peer = new FakePeer(a, "m");
+        peer.authenticate(SECRET, Map.of());
+
+        peer.send(stateMessage("api", 2000, "m", "running"));
+        peer.send(stateMessage("api", 1000, "m", "stopped"));        // 더 오래된 버전
+        peer.send(stateMessage("api", 2000, "a", "exited"));         // 같은 버전, origin이 더 작음
+        peer.send(stateMessage("api", 2000, "z", "restarting"));     // 같은 버전, origin이 더 큼
+
+        waitUntil(() -> a.store.containsKey("api") && "restarting".equals(a.store.get("api").getPhase()));
+        assertEquals("2", metric(a.cluster, "cluster_state_stale_total"));
+    }
+
+    @Test
+    void dropsMessagesBeforeAuthenticationAndClosesOnBadProof() throws Exception {
+        Node a = startNode("a", SECRET, List.of());
+        FakePeer peer = new FakePeer(a, "m");
+        peer.readMessage("hello");
+        peer.send(ClusterMessage.builder().type("hello").nodeId("m").nonce("bm9uY2U=").digest(Map.of()).build());
+        peer.readMessage("auth");
+
+        peer.send(stateMessage("api", 2000, "m", "running"));
+        waitUntil(() -> "1".equals(metric(a.cluster, "cluster_messages_rejected_total")));
+
+        peer.send(ClusterMessage.builder().type("auth").nodeId("m")
+                .proof(Base64.getEncoder().encodeToString(proof("wrong", peer.nodeNonce, "m"))).build());
+        assertNull(peer.readLine(), "connection should be closed");
+        assertEquals("1", metric(a.cluster, "cluster_auth_failures_total"));
+        assertFalse(a.store.containsKey("api"));
+    }
+
+    @Test
+    void provesSecretWithoutSendingIt() throws Exception {
+        Node a = startNode("a", SECRET, List.of());
+        FakePeer peer = new FakePeer(a, "m");
+
+        String hello = peer.readLine();
+        assertFalse(hello.contains(SECRET));
+        ClusterMessage nodeHello = objectMapper.readValue(hello, ClusterMessage.class);
+        peer.nodeNonce = nodeHello.getNonce();
+
+        peer.send(ClusterMessage.builder().type("hello").nodeId("m").nonce("cGVlcg==").digest(Map.of()).build());
+        ClusterMessage auth = peer.readMessage("auth");
+        assertEquals(Base64.getEncoder().encodeToString(proof(SECRET, "cGVlcg==", "a")), auth.getProof());
+    }
+
+    @Test
+    void antiEntropySendsOnlyStatesNewerThanPeerDigest() throws Exception {
+        Node a = startNode("a", SECRET, List.of());
+        a.store.put("api", status("api", "running", 5000L));
+        a.store.put("db", status("db", "running", 5000L));
+
+        FakePeer peer = new FakePeer(a, "m");
+        peer.authenticate(SECRET, Map.of("api", 9000L, "db", 4000L));
+
+        List<String> states = new ArrayList<>();
+        String line;
+        while ((line = peer.readLineOrTimeout(500)) != null) {
+            ClusterMessage message = objectMapper.readValue(line, ClusterMessage.class);
+            if ("state".equals(message.getType())) {
+                states.add(message.getStatus().getContainerName());
+            } else if ("synced".equals(message.getType())) {
+                states.add("synced");
+            }
+        }
+        // 보낼 상태를 모두 보낸 뒤 synced로 끝을 알림
+        assertEquals(List.of("db", "synced"), states);
+    }
+
+    @Test
+    void initialSyncCompletesOnlyAfterSyncedMarker() throws Exception {
+        Node a = startNode("a", SECRET, List.of());
+        FakePeer peer = new FakePeer(a, "m");
+        peer.authenticate(SECRET, Map.of());
+
+        peer.send(stateMessage("api", 2000, "m", "running"));
+        waitUntil(() -> a.store.containsKey("api"));
+        assertFalse(a.cluster.getInitialSync().isDone());
+
+        peer.send(ClusterMessage.builder().type("synced").nodeId("m").build());
+        waitUntil(() -> a.cluster.getInitialSync().isDone());
+    }
+
+    @Test
+    void onlyDockerOwnerTalksToDockerInClusterMode() {
+        ClusterService disabled = new ClusterService(mock(ContainerStatusService.class), mock(WebSocketService.class));
+        ReflectionTestUtils.setField(disabled, "dockerOwner", false);
+        assertTrue(disabled.isDockerOwner());
+
+        ClusterService follower = new ClusterService(mock(ContainerStatusService.class), mock(WebSocketService.class));
+        ReflectionTestUtils.setField(follower, "enabled", true);
+        ReflectionTestUtils.setField(follower, "dockerOwner", false);
+        assertFalse(follower.isDockerOwner());
+
+        ReflectionTestUtils.setField(follower, "dockerOwner", true);
+        assertTrue(follower.isDockerOwner());
+    }
+
+    @Test
+    void validatesPeerEntries() {
+        assertEquals(List.of(InetSocketAddress.createUnresolved("node-b", 7947)),
+                ClusterService.parsePeers(List.of(" node-b:7947 ", "")));
+
+        for (String invalid : List.of("node-b", "node-b:", "node-b:http", "node-b:0", "node-b:70000", ":7946")) {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> ClusterService.parsePeers(List.of(invalid)), invalid);
+            assertTrue(e.getMessage().contains("monitoring.cluster.peers"));
+        }
+    }
+
+    @Test
+    void refusesNonLoopbackBindWithoutSecret() {
+        ClusterService cluster = newCluster(new Node(), "a", "", List.of());
+        ReflectionTestUtils.setField(cluster, "bindAddress", "0.0.0.0");
+
+        assertThrows(IllegalStateException.class, cluster::start);
+    }
+
+    private Node startNode(String nodeId, String secret, List<String> peers) throws IOException {
+        Node node = new Node();
+        node.port = freePort();
+        node.cluster = newCluster(node, nodeId, secret, peers);
+        node.cluster.start();
+        nodes.add(node.cluster);
+        return node;
+    }
+
+    private ClusterService newCluster(Node node, String nodeId, String secret, List<String> peers) {
+        ContainerStatusService statusService = mock(ContainerStatusService.class);
+        when(statusService.getAllStatus()).thenAnswer(invocation -> new HashMap<>(node.store));
+        doAnswer(invocation -> {
+            ContainerStatus status = invocation.getArgument(0);
+            node.store.put(status.getContainerName(), status);
+            return null;
+        }).when(statusService).applyReplicatedStatus(any());
+
+        WebSocketService webSocketService = mock(WebSocketService.class);
+        when(webSocketService.getViewedContainers()).thenReturn(Set.of());
+
+        ClusterService cluster = new ClusterService(statusService, webSocketService);
+        ReflectionTestUtils.setField(cluster, "enabled", true);
+        ReflectionTestUtils.setField(cluster, "nodeId", nodeId);
+        ReflectionTestUtils.setField(cluster, "bindAddress", "127.0.0.1");
+        ReflectionTestUtils.setField(cluster, "port", node.port);
+        ReflectionTestUtils.setField(cluster, "peers", peers);
+        ReflectionTestUtils.setField(cluster, "secret", secret);
+        ReflectionTestUtils.setField(cluster, "dockerOwner", true);
+        ReflectionTestUtils.setField(cluster, "reconnectIntervalMs", 100L);
+        ReflectionTestUtils.setField(cluster, "sendQueueSize", 1000);
+        return cluster;
+    }
+
+    private static ContainerStatus status(String name, String phase, Long lastUpdate) {
+        return ContainerStatus.builder()
+                .containerName(name)
+                .status(phase)
+                .phase(phase)
+                .lastUpdate(lastUpdate)
+                .build();
+    }
+
+    private static ClusterMessage stateMessage(String name, long version, String origin, String phase) {
+        return ClusterMessage.builder()
+                .type("state")
+                .nodeId("m")
+                .version(version)
+                .origin(origin)
+                .status(status(name, phase, version))
+                .build();
+    }
+
+    /**
+     * ClusterService와 같은 방식으로 계산 (프로토콜이 바뀌면 이 테스트도 깨져야 함)
+     */
+    private static byte[] proof(String secret, String nonce, String senderId) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(("monitoring-cluster:" + secret).getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return mac.doFinal((nonce + "\n" + senderId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String metric(ClusterService cluster, String name) {
+        OpenMetricsWriter writer = new OpenMetricsWriter();
+        cluster.writeMetrics(writer);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writer.writeTo(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (line.startsWith(name + " ")) {
+                return line.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private static class Node {
+
+        private final Map<String, ContainerStatus> store = new ConcurrentHashMap<>();
+        private ClusterService cluster;
+        private int port;
+    }
+
+    /**
+     * 테스트가 직접 제어하는 상대 노드
+     */
+    private class FakePeer {
+
+        private final String nodeId;
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final BufferedWriter writer;
+        private String nodeNonce;
+
+        FakePeer(Node node, String nodeId) throws IOException {
+            this.nodeId = nodeId;
+            this.socket = new Socket("127.0.0.1", node.port);
+            this.socket.setSoTimeout(10_000);
+            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            sockets.add(socket);
+        }
+
+        void authenticate(String secret, Map<String, Long> digest) throws Exception {
+            readMessage("hello");
+            String nonce = "ZmFrZS1wZWVy";
+            send(ClusterMessage.builder().type("hello").nodeId(nodeId).nonce(nonce).digest(digest).build());
+            readMessage("auth");
+            send(ClusterMessage.builder().type("auth").nodeId(nodeId)
+                    .proof(Base64.getEncoder().encodeToString(proof(secret, nodeNonce, nodeId))).build());
+        }
+
+        ClusterMessage readMessage(String type) throws IOException {
+            String line = readLine();
+            assertTrue(line != null, "connection closed while waiting for " + type);
+            ClusterMessage message = objectMapper.readValue(line, ClusterMessage.class);
+            assertEquals(type, message.getType());
+            if ("hello".equals(type)) {
+                nodeNonce = message.getNonce();
+            }
+            return message;
+        }
+
+        String readLine() throws IOException {
+            return reader.readLine();
+        }
+
+        String readLineOrTimeout(int timeoutMillis) throws IOException {
+            socket.setSoTimeout(timeoutMillis);
+            try {
+                return reader.readLine();
+            } catch (SocketTimeoutException e) {
+                return null;
+            }
+        }
+
+        void send(ClusterMessage message) throws IOException {
+            writer.write(objectMapper.writeValueAsString(message));
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+}
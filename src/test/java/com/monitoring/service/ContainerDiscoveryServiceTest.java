@@ -0,0 +1,137 @@
+package com.monitoring.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.command.PingCmd;
+import com.github.dockerjava.api.model.Container;
+import com.monitoring.config.DockerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContainerDiscoveryServiceTest {
+
+    private DockerClient dockerClient;
+    private DockerApiCache dockerApiCache;
+    private ContainerStatusService containerStatusService;
+    private WebSocketService webSocketService;
+    private ClusterService clusterService;
+    private ContainerDiscoveryService service;
+
+    @BeforeEach
+    void setUp() {
+        dockerClient = mock(DockerClient.class);
+        dockerApiCache = mock(DockerApiCache.class);
+        containerStatusService = mock(ContainerStatusService.class);
+        webSocketService = mock(WebSocketService.class);
+        clusterService = mock(ClusterService.class);
+        when(clusterService.isDockerOwner()).thenReturn(true);
+        when(dockerClient.pingCmd()).thenReturn(mock(PingCmd.class));
+
+        DockerProperties dockerProperties = new DockerProperties();
+        dockerProperties.setTargetContainers(List.of("c1", "c2", "c3", "c4", "c5", "c6"));
+
+        service = new ContainerDiscoveryService(dockerClient, dockerApiCache, containerStatusService, webSocketService,
+                dockerProperties, clusterService, mock(DeploymentAnalysisService.class), mock(DockerEventService.class));
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+    }
+
+    @Test
+    void inspectsTargetsWithBoundedParallelism() throws Exception {
+        List<Container> containers = new ArrayList<>();
+        for (String name : List.of("c1", "c2", "c3", "c4", "c5", "c6", "other")) {
+            containers.add(container(name));
+        }
+        when(dockerApiCache.listContainers()).thenReturn(containers);
+
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        Set<String> inspected = ConcurrentHashMap.newKeySet();
+        when(dockerApiCache.inspectContainer(anyString())).thenAnswer(invocation -> {
+            int now = active.incrementAndGet();
+            maxActive.accumulateAndGet(now, Math::max);
+            Thread.sleep(50);
+            active.decrementAndGet();
+            inspected.add(invocation.getArgument(0));
+            return inspectResponse();
+        });
+
+        service.startDiscovery();
+        waitUntil(() -> !service.isWarming());
+
+        assertEquals(ContainerDiscoveryService.State.READY, service.getState());
+        assertEquals(Set.of("c1", "c2", "c3", "c4", "c5", "c6"), inspected);
+        assertEquals(2, maxActive.get());
+        assertTrue(service.getPhaseMillis().keySet().containsAll(List.of("ping", "list", "inspect", "total")));
+        verify(webSocketService).broadcast("initial_status", containerStatusService.getAllStatus());
+    }
+
+    @Test
+    void reportsDockerUnavailableWhenPingFails() throws Exception {
+        PingCmd ping = mock(PingCmd.class);
+        when(ping.exec()).thenThrow(new RuntimeException("Connection refused"));
+        when(dockerClient.pingCmd()).thenReturn(ping);
+
+        service.startDiscovery();
+        waitUntil(() -> !service.isWarming());
+
+        assertEquals(ContainerDiscoveryService.State.DOCKER_UNAVAILABLE, service.getState());
+        assertEquals("docker_unavailable", service.getDiscoveryStatus().get("state"));
+        verify(dockerApiCache, never()).listContainers();
+        verify(webSocketService).broadcast("monitor_state", service.getDiscoveryStatus());
+    }
+
+    @Test
+    void nonOwnerStaysWarmingUntilInitialClusterSync() {
+        CompletableFuture<Void> initialSync = new CompletableFuture<>();
+        when(clusterService.isDockerOwner()).thenReturn(false);
+        when(clusterService.getInitialSync()).thenReturn(initialSync);
+
+        service.startDiscovery();
+        assertTrue(service.isWarming());
+        verify(dockerClient, never()).pingCmd();
+
+        initialSync.complete(null);
+        assertEquals(ContainerDiscoveryService.State.READY, service.getState());
+        assertTrue(service.getPhaseMillis().containsKey("sync"));
+        verify(webSocketService).broadcast("monitor_state", Map.of("state", "ready", "phases", service.getPhaseMillis()));
+    }
+
+    private static Container container(String name) {
+        Container container = mock(Container.class);
+        when(container.getNames()).thenReturn(new String[]{"/" + name});
+        return container;
+    }
+
+    private static InspectContainerResponse inspectResponse() {
+        InspectContainerResponse response = mock(InspectContainerResponse.class);
+        when(response.getState()).thenReturn(mock(InspectContainerResponse.ContainerState.class));
+        return response;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.monitoring.service;
+
+import com.monitoring.model.ContainerQuery;
+import com.monitoring.model.ContainerStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContainerQueryServiceTest {
+
+    private WebSocketService webSocketService;
+    private ContainerQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        webSocketService = mock(WebSocketService.class);
+        service = new ContainerQueryService(webSocketService);
+        ReflectionTestUtils.setField(service, "maxSubscriptionsPerSession", 2);
+    }
+
+    @Test
+    void topOrdersByValueThenNameAndStopsAtLimit() {
+        service.index(status("c", "running", "5.00%", 0));
+        service.index(status("a", "running", "20.00%", 0));
+        service.index(status("b", "running", "5.00%", 0));
+        service.index(status("d", "running", "1.00%", 0));
+
+        assertEquals(List.of("a", "b", "c"), names(service.top(top("cpu", 3))));
+        assertEquals(20.0, service.top(top("cpu", 1)).get(0).get("value"));
+    }
+
+    @Test
+    void topReindexesChangedValues() {
+        service.index(status("a", "running", "20.00%", 0));
+        service.index(status("b", "running", "10.00%", 0));
+
+        service.index(status("a", "running", "1.00%", 0));
+
+        assertEquals(List.of("b", "a"), names(service.top(top("cpu", 10))));
+    }
+
+    @Test
+    void topSkipsContainersWithoutValue() {
+        service.index(status("a", "running", "2.00%", 0));
+        service.index(status("b", "stopped", null, 0));
+
+        assertEquals(List.of("a"), names(service.top(top("cpu", 10))));
+    }
+
+    @Test
+    void restartsComeFromStatus() {
+        service.index(status("a", "running", null, 3));
+        service.index(status("b", "flapping", null, 7));
+        service.index(status("c", "running", null, 0));
+
+        List<Map<String, Object>> rows = service.top(top("restarts", 2));
+        assertEquals(List.of("b", "a"), names(rows));
+        assertEquals(7L, rows.get(0).get("restarts"));
+    }
+
+    @Test
+    void filterIntersectsConditions() {
+        service.index(status("api", "running", null, 0), Map.of("com.docker.compose.service", "api"));
+        service.index(status("db", "running", null, 0), Map.of("com.docker.compose.service", "db"));
+        service.index(status("worker", "stopped", null, 0), Map.of("com.docker.compose.service", "api"));
+
+        ContainerQuery query = ContainerQuery.builder()
+                .kind("filter")
+                .phase("running")
+                .label("com.docker.compose.service=api")
+                .build();
+        assertEquals(List.of("api"), names(service.evaluate(query)));
+    }
+
+    @Test
+    void servicesAggregateRestarts() {
+        service.index(status("api-1", "running", "10.00%", 1), Map.of("com.docker.compose.service", "api"));
+        service.index(status("api-2", "running", "30.00%", 2), Map.of("com.docker.compose.service", "api"));
+
+        Map<String, Object> row = service.services(ContainerQuery.builder().build()).get(0);
+        assertEquals("api", row.get("service"));
+        assertEquals(2, row.get("containers"));
+        assertEquals(20.0, row.get("cpuPercentAvg"));
+        assertEquals(3L, row.get("restarts"));
+    }
+
+    @Test
+    void rejectsUnknownMetric() {
+        assertThrows(IllegalArgumentException.class, () -> service.top(top("disk", 5)));
+    }
+
+    @Test
+    void pushesSubscriptionOnlyWhenResultChanges() {
+        WebSocketSession session = session("s1");
+        service.index(status("a", "running", "20.00%", 0));
+        service.index(status("b", "running", "10.00%", 0));
+
+        service.subscribe(session, "top", top("cpu", 1));
+        verify(webSocketService).send(eq(session), eq("query_result"), any());
+
+        // 결과에 영향이 없는 변경 (top 1 밖의 값)
+        clearInvocations(webSocketService);
+        service.index(status("b", "running", "15.00%", 0));
+        service.pushChanges();
+        verify(webSocketService, never()).send(any(), any(), any());
+
+        // 순위가 바뀌면 전송
+        service.index(status("b", "running", "30.00%", 0));
+        service.pushChanges();
+        verify(webSocketService, times(1)).send(eq(session), eq("query_result"), any());
+
+        // 변경이 없으면 다시 계산하지 않음
+        clearInvocations(webSocketService);
+        service.pushChanges();
+        verify(webSocketService, never()).send(any(), any(), any());
+    }
+
+    @Test
+    void stopsPushingAfterUnsubscribe() {
+        WebSocketSession session = session("s1");
+        service.index(status("a", "running", "20.00%", 0));
+        service.subscribe(session, "top", top("cpu", 1));
+        service.unsubscribe(session, "top");
+        clearInvocations(webSocketService);
+
+        service.index(status("b", "running", "30.00%", 0));
+        service.pushChanges();
+        verify(webSocketService, never()).send(any(), any(), any());
+    }
+
+    @Test
+    void limitsSubscriptionsPerSession() {
+        WebSocketSession session = session("s1");
+        service.subscribe(session, "q1", top("cpu", 1));
+        service.subscribe(session, "q2", top("memory", 1));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.subscribe(session, "q3", top("restarts", 1)));
+        assertEquals("Too many subscriptions (max 2 per session)", e.getMessage());
+
+        // 같은 ID는 교체이므로 허용, 다른 세션은 별도로 셈
+        service.subscribe(session, "q2", top("restarts", 1));
+        service.subscribe(session("s2"), "q1", top("cpu", 1));
+
+        service.unsubscribe(session, "q1");
+        service.subscribe(session, "q3", top("restarts", 1));
+    }
+
+    private static ContainerStatus status(String name, String phase, String cpu, long restarts) {
+        return ContainerStatus.builder()
+                .containerName(name)
+                .phase(phase)
+                .status(phase)
+                .cpu(cpu)
+                .restarts(restarts)
+                .build();
+    }
+
+    private static ContainerQuery top(String metric, int limit) {
+        return ContainerQuery.builder().kind("top").metric(metric).limit(limit).build();
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        return session;
+    }
+
+    private static List<String> names(List<Map<String, Object>> rows) {
+        return rows.stream().map(row -> (String) row.get("containerName")).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,114 @@
+package com.monitoring.service;
+
+import com.monitoring.config.DockerProperties;
+import com.monitoring.model.ContainerStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 샘플링 결과를 표시 문자열로 반영하고, 표시 값이 그대로면 브로드캐스트하지 않는지 확인
+ */
+class ContainerStatusServiceTest {
+
+    private static final String CONTAINER = "api";
+    private static final long MIB = 1024L * 1024;
+    private static final long GIB = 1024L * MIB;
+
+    private WebSocketService webSocketService;
+    private CgroupStatsService cgroupStatsService;
+    private ContainerStatusService service;
+
+    private final CgroupStatsService.ContainerUsage usage = mock(CgroupStatsService.ContainerUsage.class);
+
+    @BeforeEach
+    void setUp() {
+        webSocketService = mock(WebSocketService.class);
+        cgroupStatsService = mock(CgroupStatsService.class);
+        when(cgroupStatsService.isEnabled()).thenReturn(true);
+        when(cgroupStatsService.sample(CONTAINER)).thenReturn(true);
+        when(cgroupStatsService.getUsage(CONTAINER)).thenReturn(usage);
+
+        service = new ContainerStatusService(webSocketService, new DockerProperties(), cgroupStatsService,
+                mock(DockerApiCache.class), mock(ContainerQueryService.class), mock(DeploymentAnalysisService.class));
+        service.setRestarts(CONTAINER, 0);
+    }
+
+    @Test
+    void formatsCpuAndMemory() {
+        assertEquals("12.3%", refresh(12.34, 512 * MIB + MIB / 2).getCpu());
+        assertEquals("512.5MiB", status().getMemory());
+
+        assertEquals("0.0%", refresh(-1, 2 * GIB + GIB / 20).getCpu());
+        assertEquals("2.05GiB", status().getMemory());
+
+        assertEquals("N/A", refresh(0, -1).getMemory());
+    }
+
+    @Test
+    void broadcastsOnlyWhenDisplayedValueChanges() {
+        refresh(12.34, 100 * MIB);
+        verify(webSocketService, times(1)).broadcast(eq("container_status_update"), any());
+
+        // 표시 자릿수에서 같은 값
+        clearInvocations(webSocketService);
+        refresh(12.31, 100 * MIB + 1024);
+        verify(webSocketService, never()).broadcast(eq("container_status_update"), any());
+
+        refresh(12.36, 100 * MIB);
+        verify(webSocketService, times(1)).broadcast(eq("container_status_update"), any());
+        assertEquals("12.4%", status().getCpu());
+    }
+
+    @Test
+    void rewritesValueChangedElsewhere() {
+        refresh(5, 100 * MIB);
+        // 정지 시 다른 경로에서 N/A로 바꾼 뒤 같은 숫자가 다시 들어와도 표시 값을 복원
+        status().setCpu("N/A");
+        status().setMemory("N/A");
+
+        refresh(5, 100 * MIB);
+        assertEquals("5.0%", status().getCpu());
+        assertEquals("100.0MiB", status().getMemory());
+    }
+
+    @Test
+    void formatsUptimeByMinute() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> startedAt = startedAtMap();
+
+        startedAt.put(CONTAINER, now - (2 * 60 + 5) * 60_000L - 10_000);
+        assertEquals("2h 5m", refresh(0, MIB).getUptime());
+
+        startedAt.put(CONTAINER, now - 3 * 60_000L - 10_000);
+        assertEquals("3m", refresh(0, MIB).getUptime());
+    }
+
+    private ContainerStatus refresh(double cpuPercent, long memoryBytes) {
+        when(usage.getCpuPercent()).thenReturn(cpuPercent);
+        when(usage.getMemoryBytes()).thenReturn(memoryBytes);
+        service.refreshContainer(CONTAINER);
+        return status();
+    }
+
+    private ContainerStatus status() {
+        return service.getStatus(CONTAINER);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> startedAtMap() {
+        return (Map<String, Long>) ReflectionTestUtils.getField(service, "startedAtMap");
+    }
+}
@@ -0,0 +1,174 @@
+package com.monitoring.service;
+
+import com.monitoring.model.ContainerTiming;
+import com.monitoring.model.RolloutReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class DeploymentAnalysisServiceTest {
+
+    // 모니터 호스트 시계와 무관한 과거의 데몬 시각
+    private static final long T0 = 1_000_000L;
+
+    @TempDir
+    Path dir;
+
+    private ContainerStatusService containerStatusService;
+    private WebSocketService webSocketService;
+    private DeploymentAnalysisService service;
+
+    @BeforeEach
+    void setUp() {
+        containerStatusService = mock(ContainerStatusService.class);
+        webSocketService = mock(WebSocketService.class);
+        service = newService();
+    }
+
+    @Test
+    void dependencyGraphResolvesServicesWithinProject() {
+        service.register("shop-api-1", labels("shop", "api", "db:service_healthy:false,redis:service_started:false"),
+                false, true, T0);
+        service.register("shop-db-1", labels("shop", "db", null), true, true, T0);
+        service.register("shop-redis-1", labels("shop", "redis", null), false, true, T0);
+        service.register("other-db-1", labels("other", "db", null), true, true, T0);
+
+        Map<String, List<String>> graph = service.getDependencyGraph();
+        assertEquals(List.of("shop-db-1", "shop-redis-1"), graph.get("shop-api-1"));
+        assertEquals(List.of(), graph.get("shop-db-1"));
+        assertEquals(List.of(), graph.get("other-db-1"));
+    }
+
+    @Test
+    void waitingForListsUnmetDependenciesUntilTheyAreReady() {
+        service.register("db", labels("p", "db", null), true, false, null);
+
+        service.onEvent("api", "create", labels("p", "api", "db:service_healthy:false"), T0);
+        verify(containerStatusService).setWaitingFor("api", "db");
+
+        // start만으로는 service_healthy 조건을 충족하지 않음
+        service.onEvent("db", "start", labels("p", "db", null), T0 + 100);
+        verify(containerStatusService, never()).setWaitingFor(eq("api"), eq(null));
+
+        service.onEvent("db", "health_status: healthy", null, T0 + 2000);
+        verify(containerStatusService).setWaitingFor("api", null);
+    }
+
+    @Test
+    void criticalPathFollowsTheLatestSatisfiedDependency() {
+        service.register("db", labels("p", "db", null), true, false, null);
+
+        service.onEvent("db", "create", labels("p", "db", null), T0);
+        service.onEvent("redis", "create", labels("p", "redis", null), T0);
+        service.onEvent("api", "create", labels("p", "api", "db:service_healthy:false,redis:service_started:false"), T0);
+        service.onEvent("db", "start", null, T0 + 100);
+        service.onEvent("redis", "start", null, T0 + 200);
+        service.onEvent("db", "health_status: healthy", null, T0 + 5000);
+        service.onEvent("api", "start", null, T0 + 5100);
+
+        RolloutReport report = finishRollout();
+        assertEquals(List.of("db", "api"), report.getCriticalPath());
+        assertEquals(5100L, report.getDurationMs());
+        assertFalse(report.getTimedOut());
+
+        ContainerTiming api = timing(report, "api");
+        assertEquals("db", api.getGatedBy());
+        assertEquals(List.of("db", "redis"), api.getDependsOn());
+        assertEquals(5100L, api.getWaitMs());
+        assertEquals(4900L, timing(report, "db").getStartupMs());
+    }
+
+    @Test
+    void criticalPathStopsOnDependencyCycle() {
+        service.onEvent("a", "start", labels("p", "a", "b:service_started:false"), T0);
+        service.onEvent("b", "start", labels("p", "b", "a:service_started:false"), T0 + 1000);
+
+        RolloutReport report = finishRollout();
+        assertEquals(List.of("a", "b"), report.getCriticalPath());
+        assertEquals("a", timing(report, "b").getGatedBy());
+        assertEquals("b", timing(report, "a").getGatedBy());
+    }
+
+    @Test
+    void timeoutIsMeasuredOnTheEventClock() {
+        ReflectionTestUtils.setField(service, "maxDurationMs", 60_000L);
+        service.register("db", labels("p", "db", null), true, false, null);
+
+        // 호스트 시계로 재면 이미 제한 시간을 훨씬 넘긴 시각이지만 데몬 시계로는 방금 시작한 배포
+        service.onEvent("db", "start", labels("p", "db", null), T0);
+        service.checkRollout();
+        verify(webSocketService, never()).broadcast(anyString(), any());
+
+        ReflectionTestUtils.setField(service, "maxDurationMs", 0L);
+        RolloutReport report = finishRollout();
+        assertTrue(report.getTimedOut());
+        assertNull(timing(report, "db").getReadyAt());
+    }
+
+    @Test
+    void historySurvivesRestart() {
+        service.onEvent("api", "start", labels("p", "api", null), T0);
+        RolloutReport report = finishRollout();
+
+        DeploymentAnalysisService restarted = newService();
+        restarted.loadHistory();
+
+        List<RolloutReport> history = restarted.getHistory();
+        assertEquals(1, history.size());
+        assertEquals(report.getStartedAt(), history.get(0).getStartedAt());
+        assertEquals(List.of("api"), history.get(0).getCriticalPath());
+    }
+
+    private DeploymentAnalysisService newService() {
+        DeploymentAnalysisService created = new DeploymentAnalysisService(containerStatusService, webSocketService);
+        ReflectionTestUtils.setField(created, "settleMs", 0L);
+        ReflectionTestUtils.setField(created, "maxDurationMs", 600_000L);
+        ReflectionTestUtils.setField(created, "historySize", 20);
+        ReflectionTestUtils.setField(created, "historyFile", dir.resolve("history.json").toString());
+        ReflectionTestUtils.setField(created, "regressionRatio", 1.5);
+        ReflectionTestUtils.setField(created, "regressionMinMs", 1000L);
+        return created;
+    }
+
+    private RolloutReport finishRollout() {
+        service.checkRollout();
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(webSocketService).broadcast(eq("rollout_report"), captor.capture());
+        return (RolloutReport) captor.getValue();
+    }
+
+    private static ContainerTiming timing(RolloutReport report, String name) {
+        return report.getContainers().stream()
+                .filter(timing -> name.equals(timing.getContainerName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Map<String, String> labels(String project, String service, String dependsOn) {
+        Map<String, String> labels = new HashMap<>();
+        labels.put("com.docker.compose.project", project);
+        labels.put("com.docker.compose.service", service);
+        if (dependsOn != null) {
+            labels.put("com.docker.compose.depends_on", dependsOn);
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,121 @@
+package com.monitoring.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class WebhookQueueServiceTest {
+
+    private GithubWebhookService githubWebhookService;
+    private WebhookQueueService service;
+
+    // 본문을 읽은 횟수 (거절된 요청은 0이어야 함)
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        githubWebhookService = mock(GithubWebhookService.class);
+        service = new WebhookQueueService(githubWebhookService);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.setField(service, "workers", 1);
+        ReflectionTestUtils.setField(service, "burst", 100.0);
+        ReflectionTestUtils.setField(service, "ratePerSecond", 100.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void processesAcceptedPayloadOnWorker() {
+        service.init();
+        Map<String, Object> payload = Map.of("ref", "refs/heads/main");
+
+        assertEquals(WebhookQueueService.Result.ACCEPTED, service.submit("push", reader(payload)));
+        verify(githubWebhookService, timeout(2000)).handlePushEvent(payload);
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void rateLimitedRequestIsNotRead() {
+        ReflectionTestUtils.setField(service, "burst", 2.0);
+        ReflectionTestUtils.setField(service, "ratePerSecond", 0.001);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        service.init();
+
+        assertEquals(WebhookQueueService.Result.ACCEPTED, service.submit("issues", reader(Map.of())));
+        assertEquals(WebhookQueueService.Result.ACCEPTED, service.submit("issues", reader(Map.of())));
+        assertEquals(WebhookQueueService.Result.RATE_LIMITED, service.submit("issues", reader(Map.of())));
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void fullQueueRejectsBeforeReadingAndRecovers() throws Exception {
+        service.init();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockPushEvents(entered, release);
+
+        // 워커 1개가 처리 중이고 큐 1칸이 차면 다음 요청은 본문을 읽지 않고 거절
+        assertEquals(WebhookQueueService.Result.ACCEPTED, service.submit("push", reader(Map.of())));
+        assertTrue(entered.await(2, TimeUnit.SECONDS));
+        assertEquals(WebhookQueueService.Result.ACCEPTED, service.submit("push", reader(Map.of())));
+        assertEquals(WebhookQueueService.Result.QUEUE_FULL, service.submit("push", reader(Map.of())));
+        assertEquals(2, reads.get());
+
+        release.countDown();
+        verify(githubWebhookService, timeout(2000).times(2)).handlePushEvent(any());
+        assertEquals(WebhookQueueService.Result.ACCEPTED, service.submit("push", reader(Map.of())));
+    }
+
+    @Test
+    void invalidPayloadReleasesQueueSlot() throws Exception {
+        service.init();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockPushEvents(entered, release);
+
+        assertEquals(WebhookQueueService.Result.ACCEPTED, service.submit("push", reader(Map.of())));
+        assertTrue(entered.await(2, TimeUnit.SECONDS));
+
+        assertEquals(WebhookQueueService.Result.INVALID_PAYLOAD, service.submit("push", () -> {
+            throw new IOException("Unexpected end-of-input");
+        }));
+        assertEquals(WebhookQueueService.Result.INVALID_PAYLOAD, service.submit("push", () -> null));
+        // 잘못된 본문이 차지했던 자리는 반납되어 다음 요청이 들어감
+        assertEquals(WebhookQueueService.Result.ACCEPTED, service.submit("push", reader(Map.of())));
+
+        release.countDown();
+    }
+
+    private WebhookQueueService.PayloadReader reader(Map<String, Object> payload) {
+        return () -> {
+            reads.incrementAndGet();
+            return payload;
+        };
+    }
+
+    private void blockPushEvents(CountDownLatch entered, CountDownLatch release) {
+        doAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(githubWebhookService).handlePushEvent(any());
+    }
+}
@@ -0,0 +1,196 @@
+package com.monitoring.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BinaryMessageEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BinaryMessageEncoder encoder = new BinaryMessageEncoder(objectMapper);
+
+    @Test
+    void fieldNamesMatchDashboard() throws IOException {
+        String script = Files.readString(Path.of("src/main/resources/static/js/dashboard.js"));
+        int start = script.indexOf("const FIELD_NAMES = [");
+        int end = script.indexOf("];", start);
+
+        List<String> names = new ArrayList<>();
+        Matcher matcher = Pattern.compile("'([^']*)'").matcher(script.substring(start, end));
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        assertEquals(BinaryMessageEncoder.FIELD_NAMES, names);
+    }
+
+    @Test
+    void encodesGoldenBytes() {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "ping");
+        message.put("count", -3);
+        message.put("ok", true);
+        message.put("v", null);
+        message.put("d", 1.5);
+        message.put("data", List.of(false, 64));
+
+        assertArrayEquals(bytes(
+                1,                                  // VERSION
+                6, 6,                               // object, 6 fields
+                1, 5, 4, 'p', 'i', 'n', 'g',        // "type" (ID 1): string
+                0, 5, 'c', 'o', 'u', 'n', 't', 3, 5, // 이름 키 "count": zigzag(-3) = 5
+                0, 2, 'o', 'k', 2,
+                0, 1, 'v', 0,
+                0, 1, 'd', 4, 0x3F, 0xF8, 0, 0, 0, 0, 0, 0,
+                2, 7, 2, 1, 3, 0x80, 0x01           // "data" (ID 2): [false, 64], zigzag(64) = 128
+        ), encoder.encode(message));
+    }
+
+    @Test
+    void encodesMultiByteUtf8AndReplacesLoneSurrogates() {
+        assertArrayEquals(bytes(1, 5, 11,
+                        0xC3, 0xA9,                 // é
+                        0xEC, 0xBB, 0xA8,           // 컨
+                        0xF0, 0x9F, 0x98, 0x80,     // 😀
+                        '?', 'x'),
+                encoder.encode("é컨😀\uD800x"));
+    }
+
+    @Test
+    void widensLengthsOf128OrMore() {
+        String longText = "a".repeat(200);
+        byte[] encoded = encoder.encode(List.of(longText, "b"));
+
+        // array 개수 2, 문자열 길이 200 = 0xC8 0x01
+        assertArrayEquals(bytes(1, 7, 2, 5, 0xC8, 0x01), Arrays.copyOf(encoded, 6));
+        assertEquals(1 + 2 + 3 + 200 + 3, encoded.length);
+        assertEquals(List.of(longText, "b"), decode(encoded));
+    }
+
+    @Test
+    void roundTripsThroughDashboardDecoder() throws IOException {
+        List<Object> containers = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Map<String, Object> container = new LinkedHashMap<>();
+            container.put("containerName", "service-" + i);
+            container.put("status", i % 3 == 0 ? "running" : "exited");
+            container.put("cpu", i + ".5%");
+            container.put("restarts", -i);
+            container.put("labels", Map.of("com.docker.compose.service", "서비스".repeat(i % 50)));
+            container.put("progress", i / 3.0);
+            container.put("flapping", i % 7 == 0);
+            container.put("lastEvent", i % 5 == 0 ? null : "event " + "😀".repeat(i % 40));
+            containers.add(container);
+        }
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "status");
+        message.put("data", containers);
+        message.put("timestamp", 1_700_000_000_000L);
+        message.put("extremes", List.of(Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, -1, 0));
+
+        Object decoded = decode(encoder.encode(message));
+        assertEquals(objectMapper.writeValueAsString(message), objectMapper.writeValueAsString(decoded));
+    }
+
+    @Test
+    void reusesBuffersBetweenMessages() {
+        byte[] first = encoder.encode(Map.of("message", "x".repeat(5000)));
+        byte[] small = encoder.encode(Map.of("type", "ping"));
+
+        assertEquals(Map.of("message", "x".repeat(5000)), decode(first));
+        assertArrayEquals(bytes(1, 6, 1, 1, 5, 4, 'p', 'i', 'n', 'g'), small);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    private static Object decode(byte[] message) {
+        ByteBuffer buffer = ByteBuffer.wrap(message);
+        assertEquals(BinaryMessageEncoder.VERSION, buffer.get());
+        Object value = readValue(buffer);
+        assertEquals(0, buffer.remaining());
+        return value;
+    }
+
+    /**
+     * dashboard.js decodeBinaryMessage와 같은 방식으로 디코딩
+     */
+    private static Object readValue(ByteBuffer buffer) {
+        int tag = buffer.get();
+        switch (tag) {
+            case 0:
+                return null;
+            case 1:
+                return false;
+            case 2:
+                return true;
+            case 3: {
+                long zigzag = readVarint(buffer);
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+            case 4:
+                return buffer.getDouble();
+            case 5:
+                return readString(buffer);
+            case 6: {
+                Map<String, Object> object = new LinkedHashMap<>();
+                long count = readVarint(buffer);
+                for (long i = 0; i < count; i++) {
+                    int id = (int) readVarint(buffer);
+                    String key = id > 0 ? BinaryMessageEncoder.FIELD_NAMES.get(id - 1) : readString(buffer);
+                    object.put(key, readValue(buffer));
+                }
+                return object;
+            }
+            case 7: {
+                List<Object> array = new ArrayList<>();
+                long count = readVarint(buffer);
+                for (long i = 0; i < count; i++) {
+                    array.add(readValue(buffer));
+                }
+                return array;
+            }
+            default:
+                throw new IllegalStateException("Unknown tag: " + tag);
+        }
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        String text = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return text;
+    }
+}